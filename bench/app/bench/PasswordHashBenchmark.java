@@ -0,0 +1,53 @@
+package app.bench;
+
+import app.services.PasswordHasher;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long verifying one password takes (the CPU part of a login) at several PBKDF2 costs,
+ * next to the legacy unsalted SHA-256 hashes, to choose -Dtaskmanager.pbkdf2.iterations.
+ * Usage: java app.bench.PasswordHashBenchmark [iterations...]
+ */
+public class PasswordHashBenchmark {
+
+    private static final int[] DEFAULT_COSTS = { 10_000, 60_000, PasswordHasher.DEFAULT_ITERATIONS, 310_000, 600_000 };
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 15;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    public static void main(String[] args) {
+        int[] costs = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : DEFAULT_COSTS;
+
+        System.out.printf("%-16s %10s %10s %10s%n", "Hash", "best ms", "median ms", "worst ms");
+        report("sha256 (legacy)", PasswordHasher.legacyHash(PASSWORD), 1_000);
+        for (int cost : costs) {
+            report("pbkdf2 " + cost, PasswordHasher.hash(PASSWORD, cost), 1);
+        }
+    }
+
+    /**
+     * Times batches of verifications; cheap hashes are repeated per sample so the timer resolution does not dominate
+     */
+    private static void report(String name, String stored, int repeat) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            verify(stored, repeat);
+        }
+        double[] millis = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            verify(stored, repeat);
+            millis[i] = (System.nanoTime() - start) / 1e6 / repeat;
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-16s %10.3f %10.3f %10.3f%n", name, millis[0], millis[ROUNDS / 2], millis[ROUNDS - 1]);
+    }
+
+    private static void verify(String stored, int repeat) {
+        for (int i = 0; i < repeat; i++) {
+            if (!PasswordHasher.verify(PASSWORD, stored)) {
+                throw new IllegalStateException("Verification failed for " + stored);
+            }
+        }
+    }
+}
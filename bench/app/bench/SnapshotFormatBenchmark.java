@@ -0,0 +1,83 @@
+package app.bench;
+
+import app.models.Comment;
+import app.models.Task;
+import app.services.StorageService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares size and parse time of the JSON and binary task snapshots on a generated board.
+ * Usage: java app.bench.SnapshotFormatBenchmark [taskCount]
+ */
+public class SnapshotFormatBenchmark {
+
+    private static final String[] LABELS = { "bug", "feature", "refactor", "ui", "backend", "docs", "urgent", "test" };
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Task> tasks = generateBoard(taskCount);
+
+        Path dir = Files.createTempDirectory("task-snapshot-bench");
+        Path json = dir.resolve("tasks.json");
+        Path binary = dir.resolve("tasks.bin");
+
+        StorageService.writeSnapshotFile(tasks, json, false);
+        StorageService.convertJsonToBinary(json, binary);
+
+        System.out.printf("Tasks:        %d%n", taskCount);
+        System.out.printf("JSON size:    %,d bytes%n", Files.size(json));
+        System.out.printf("Binary size:  %,d bytes%n", Files.size(binary));
+        System.out.printf("JSON parse:   %d ms%n", bestParseMillis(json));
+        System.out.printf("Binary parse: %d ms%n", bestParseMillis(binary));
+
+        Files.delete(json);
+        Files.delete(binary);
+        Files.delete(dir);
+    }
+
+    private static long bestParseMillis(Path file) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            List<Task> tasks = StorageService.readSnapshotFile(file);
+            long elapsed = System.nanoTime() - start;
+            if (tasks.isEmpty()) throw new IllegalStateException("Empty snapshot");
+            best = Math.min(best, elapsed);
+        }
+        return best / 1_000_000;
+    }
+
+    private static List<Task> generateBoard(int taskCount) {
+        Random random = new Random(42);
+        Task.Status[] statuses = Task.Status.values();
+        Task.BackgroundColor[] colors = Task.BackgroundColor.values();
+        LocalDateTime base = LocalDateTime.now();
+
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task("Task " + i, "Generated description for task " + i, statuses[random.nextInt(statuses.length)]);
+            task.setBackgroundColor(colors[random.nextInt(colors.length)]);
+            task.setCreationDate(base.minusMinutes(random.nextInt(500_000)));
+            int labelCount = random.nextInt(3);
+            for (int l = 0; l < labelCount; l++) {
+                String label = LABELS[random.nextInt(LABELS.length)];
+                if (!task.getLabels().contains(label)) {
+                    task.getLabels().add(label);
+                }
+            }
+            int commentCount = random.nextInt(3);
+            for (int c = 0; c < commentCount; c++) {
+                task.getComments().add(new Comment("Comment " + c + " on task " + i));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
@@ -34,10 +34,25 @@ javac -d out --module-path "%JAVAFX_PATH%" --add-modules javafx.controls,javafx.
     src\app\controllers\TaskDetailController.java ^
     src\app\controllers\LoginController.java ^
     src\app\controllers\RegisterController.java ^
+    src\app\controllers\ViewPreloader.java ^
     src\app\models\Task.java ^
     src\app\models\Comment.java ^
+    src\app\models\LabelList.java ^
+    src\app\models\LabelRegistry.java ^
+    src\app\models\AccessRule.java ^
     src\app\models\User.java ^
+    src\app\services\AccessControl.java ^
+    src\app\services\BinaryTaskCodec.java ^
+    src\app\services\FilterService.java ^
+    src\app\services\MappedTaskStore.java ^
+    src\app\services\PasswordHasher.java ^
+    src\app\services\RankKeys.java ^
+    src\app\services\SearchIndex.java ^
+    src\app\services\Session.java ^
     src\app\services\StorageService.java ^
+    src\app\services\TaskJournal.java ^
+    src\app\services\TaskQuery.java ^
+    src\app\services\TaskRepository.java ^
     src\app\services\UserService.java
 
 if %ERRORLEVEL% NEQ 0 (
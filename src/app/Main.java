@@ -1,5 +1,8 @@
 package app;
 
+import app.services.AccessControl;
+import app.services.StorageService;
+import app.services.UserService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -18,6 +21,14 @@ public class Main extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        // Queued saves run on a daemon thread, make sure they reach the disk before exit
+        StorageService.flushAll();
+        UserService.flush();
+        AccessControl.flush();
+    }
+
     public static void main(String[] args) {
         launch();
     }
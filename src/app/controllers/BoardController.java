@@ -1,17 +1,26 @@
 package app.controllers;
 
+import app.models.AccessRule;
 import app.models.Task;
 import app.models.User;
+import app.services.AccessControl;
+import app.services.FilterService;
+import app.services.Session;
 import app.services.StorageService;
+import app.services.TaskQuery;
+import app.services.TaskRepository;
 import app.services.UserService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.css.PseudoClass;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.scene.paint.Color;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.DragEvent;
 import javafx.scene.input.Dragboard;
@@ -20,11 +29,29 @@ import javafx.scene.input.TransferMode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BoardController {
 
@@ -34,31 +61,272 @@ public class BoardController {
     @FXML private VBox inReviewColumn;
     @FXML private VBox waitingForRetestColumn;
     @FXML private VBox doneColumn;
+    // Column lists hold task ids, cells look the task up when they are shown
+    @FXML private ListView<String> backlogList;
+    @FXML private ListView<String> todoList;
+    @FXML private ListView<String> inProgressList;
+    @FXML private ListView<String> inReviewList;
+    @FXML private ListView<String> waitingForRetestList;
+    @FXML private ListView<String> doneList;
     @FXML private Button addTaskButton;
     @FXML private Button logoutButton;
     @FXML private Button manageUsersButton;
     @FXML private Label userInfoLabel;
+    @FXML private ComboBox<String> labelFilterBox;
+    @FXML private TextField searchField;
+    @FXML private TextField filterField;
+    @FXML private ComboBox<String> savedFiltersBox;
+    @FXML private Label filterErrorLabel;
+    @FXML private Label searchInfoLabel;
 
-    private List<Task> tasks;
+    private static final String ALL_LABELS = "All labels";
+    private static final String ALL_PERMISSIONS = "All permissions";
+    private static final PseudoClass DRAG_TARGET = PseudoClass.getPseudoClass("drag-target");
+    private static final PseudoClass SEARCH_MATCH = PseudoClass.getPseudoClass("search-match");
+    private static final double DROP_MARKER_HEIGHT = 3;
+    // Space below each card, set as the list cell padding in board.css
+    private static final double CARD_GAP = 10;
 
+    // Tasks per batch handed from the loader thread while the board is read
+    private static final int LOAD_BATCH_SIZE = 200;
+    // Rows per page of the user management table
+    private static final int USER_PAGE_SIZE = 50;
+
+    // Null until the background load has finished
+    private TaskRepository repository;
+    // Columns as painted so far during loading, in snapshot rank order
+    private final Map<Task.Status, List<LoadedCard>> loadingColumns = new EnumMap<>(Task.Status.class);
+    private final Queue<List<LoadedCard>> loadedBatches = new ConcurrentLinkedQueue<>();
+    // Tasks painted during loading, by id; the repository answers once it is there
+    private final Map<String, Task> loadingTasks = new HashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    // Header text of each column without the card count
+    private final Map<Task.Status, String> columnTitles = new EnumMap<>(Task.Status.class);
+    // The user and board this view works for, set by start()
+    private Session session;
+    // Task detail window, created on first use and reused for every card
+    private Stage detailStage;
+    private TaskDetailController detailController;
+    // One insertion marker per column, moved over the list while a card is dragged
+    private final Map<Task.Status, Region> dropMarkers = new EnumMap<>(Task.Status.class);
+    // Label chips released by card cells, handed out again before new ones are created
+    private final Deque<Label> labelChipPool = new ArrayDeque<>();
+    // Ids of the tasks matching the search box, highlighted on the board
+    private Set<String> searchMatches = Collections.emptySet();
+    // Query of the filter bar as last applied (see TaskQuery)
+    private String activeFilter = "";
+    private boolean updatingSavedFilters = false;
+    // Set while the filter choices are replaced, so the resulting value change does not trigger a refresh
+    private boolean updatingLabelFilter = false;
+
+    /**
+     * Builds the board view only. The view may be preloaded on a background thread before anyone
+     * is logged in (see ViewPreloader); {@link #start(Session)} binds it to the session and loads the tasks.
+     */
     @FXML
     public void initialize() {
-        // Check if user is logged in
-        if (!UserService.isLoggedIn()) {
-            // Should not happen if login works correctly, but safety check
-            return;
+        for (Task.Status status : Task.Status.values()) {
+            columnTitles.put(status, getColumnHeader(status).getText());
+        }
+        for (Task.Status status : Task.Status.values()) {
+            getColumnList(status).setCellFactory(list -> new TaskCardCell(status));
         }
-        
-        tasks = StorageService.loadTasks();
         setupDragAndDrop();
-        setupButtonHover();
+        if (searchField != null) {
+            searchField.textProperty().addListener((obs, oldText, newText) -> applySearch());
+        }
+    }
+
+    public void start(Session session) {
+        // Should not happen if login works correctly, but safety check
+        if (session == null) {
+            return;
+        }
+
+        this.session = session;
         setupPermissionBasedUI();
+        refreshSavedFilters(null);
+        loadBoardInBackground();
+    }
+
+    /**
+     * Reads the board off the FX thread. The window shows right away; cards are merged into the columns
+     * in rank order as batches arrive, and the final repository (with the journal applied) replaces them at the end.
+     */
+    private void loadBoardInBackground() {
+        if (addTaskButton != null) {
+            addTaskButton.setDisable(true);
+        }
+        for (Task.Status status : Task.Status.values()) {
+            loadingColumns.put(status, new ArrayList<>());
+        }
+
+        StorageService storage = session.getStorage();
+        Thread loader = new Thread(() -> {
+            try {
+                // Read by the first session on the board, the others get the same repository without batches
+                TaskRepository loaded = storage.loadBoard(LOAD_BATCH_SIZE, batch -> {
+                    // Keys are captured here, before the journal replay may change status or rank
+                    List<LoadedCard> cards = new ArrayList<>(batch.size());
+                    for (Task task : batch) {
+                        cards.add(new LoadedCard(task));
+                    }
+                    loadedBatches.add(cards);
+                    if (drainScheduled.compareAndSet(false, true)) {
+                        Platform.runLater(this::drainLoadedBatches);
+                    }
+                });
+                // Indexes are built by loadBoard too, the FX thread only swaps the finished repository in
+                Platform.runLater(() -> onBoardLoaded(loaded));
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> onBoardLoadFailed(e));
+            }
+        }, "board-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Merges every batch that arrived since the last pulse into the columns (one UI update per pulse, not per batch)
+     */
+    private void drainLoadedBatches() {
+        drainScheduled.set(false);
+        if (repository != null) {
+            loadedBatches.clear();
+            return;
+        }
+        EnumMap<Task.Status, List<LoadedCard>> arrived = new EnumMap<>(Task.Status.class);
+        List<LoadedCard> batch;
+        while ((batch = loadedBatches.poll()) != null) {
+            for (LoadedCard card : batch) {
+                if (card.status != null && canViewTask(card.task)) {
+                    arrived.computeIfAbsent(card.status, st -> new ArrayList<>()).add(card);
+                }
+            }
+        }
+        for (Map.Entry<Task.Status, List<LoadedCard>> entry : arrived.entrySet()) {
+            Task.Status status = entry.getKey();
+            List<LoadedCard> column = loadingColumns.get(status);
+            List<LoadedCard> merged = new ArrayList<>(column.size() + entry.getValue().size());
+            entry.getValue().sort(LoadedCard.ORDER);
+            mergeSorted(column, entry.getValue(), merged);
+            loadingColumns.put(status, merged);
+
+            List<String> desired = new ArrayList<>(merged.size());
+            for (LoadedCard card : merged) {
+                loadingTasks.put(card.task.getId(), card.task);
+                desired.add(card.task.getId());
+            }
+            reconcile(getColumnList(status).getItems(), desired);
+            getColumnHeader(status).setText(columnTitles.get(status) + " (" + desired.size() + "...)");
+        }
+    }
+
+    private static void mergeSorted(List<LoadedCard> a, List<LoadedCard> b, List<LoadedCard> into) {
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            into.add(LoadedCard.ORDER.compare(a.get(i), b.get(j)) <= 0 ? a.get(i++) : b.get(j++));
+        }
+        into.addAll(a.subList(i, a.size()));
+        into.addAll(b.subList(j, b.size()));
+    }
+
+    private void onBoardLoaded(TaskRepository loaded) {
+        repository = loaded;
+        if (session != null) {
+            session.setBoard(loaded);
+        }
+        loadingColumns.clear();
+        loadedBatches.clear();
+        loadingTasks.clear();
+        if (addTaskButton != null) {
+            addTaskButton.setDisable(false);
+        }
+        // Journal changes and legacy ranks only show up here; the diff keeps the cards already painted
         refreshUI();
+        repository.indexDetailsAsync();
+        applySearch();
+    }
+
+    /**
+     * Clears the partly painted board and reports the error. Nothing can be edited without a repository,
+     * so the user can retry or log out.
+     */
+    private void onBoardLoadFailed(Exception error) {
+        loadingColumns.clear();
+        loadedBatches.clear();
+        loadingTasks.clear();
+        for (Task.Status status : Task.Status.values()) {
+            getColumnList(status).getItems().clear();
+            getColumnHeader(status).setText(columnTitles.get(status));
+        }
+        if (addTaskButton != null) {
+            addTaskButton.setDisable(false);
+        }
+        if (session == null) return;
+
+        Alert alert = new Alert(Alert.AlertType.ERROR, "Failed to load the board: " + error.getMessage(),
+                new ButtonType("Retry"), ButtonType.CLOSE);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        if (alert.showAndWait().orElse(ButtonType.CLOSE) != ButtonType.CLOSE && session != null) {
+            loadBoardInBackground();
+        }
+    }
+
+    /**
+     * Looks the search box up in the index and re-renders the visible cards with their highlight
+     */
+    private void applySearch() {
+        if (repository == null) return;
+        updateSearchMatches();
+        for (Task.Status status : Task.Status.values()) {
+            // Only the cells on screen are re-rendered
+            getColumnList(status).refresh();
+        }
+    }
+
+    private void updateSearchMatches() {
+        String query = searchField != null ? searchField.getText() : null;
+        if (query == null || query.isBlank()) {
+            searchMatches = Collections.emptySet();
+            searchInfoLabel.setText("");
+            return;
+        }
+        searchMatches = repository.search(query);
+        // Cards hidden by access rules are not counted
+        int count = 0;
+        for (String id : searchMatches) {
+            if (canViewTask(id)) {
+                count++;
+            }
+        }
+        searchInfoLabel.setText(count == 1 ? "1 match" : count + " matches");
+    }
+
+    /**
+     * A task as read from the snapshot, with the column and order it had there
+     */
+    private static final class LoadedCard {
+        static final Comparator<LoadedCard> ORDER = Comparator
+                .comparing((LoadedCard card) -> card.rank, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(card -> card.task.getId());
+
+        final Task task;
+        final Task.Status status;
+        final String rank;
+
+        LoadedCard(Task task) {
+            this.task = task;
+            this.status = task.getStatus();
+            this.rank = task.getRank();
+        }
     }
     
     private void setupPermissionBasedUI() {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null) return;
+        User currentUser = session.getUser();
         
         // Display user info
         if (userInfoLabel != null) {
@@ -67,7 +335,7 @@ public class BoardController {
         
         // Show/hide admin button
         if (manageUsersButton != null) {
-            manageUsersButton.setVisible(UserService.isAdmin());
+            manageUsersButton.setVisible(session.isAdmin());
         }
         
         // Hide/disable features based on permission
@@ -89,7 +357,9 @@ public class BoardController {
     
     @FXML
     private void onLogoutClicked() {
-        UserService.logout();
+        // Write out any queued saves before leaving the board
+        session.getStorage().flush();
+        session = null;
         // Close board and show login
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/app/views/login.fxml"));
@@ -110,42 +380,24 @@ public class BoardController {
         }
     }
     
+    /**
+     * Whether the session's user may change the task; null asks whether they may create tasks
+     */
     private boolean canModifyTask(Task task) {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null) return false;
-        
-        switch (currentUser.getPermission()) {
-            case ADMIN:
-                return true;
-            case PERMITTED:
-                // For now, permitted users can modify all tasks
-                // This can be extended later with task-level permissions
-                return true;
-            case READ_ONLY:
-                return false;
-            default:
-                return false;
-        }
+        if (session == null) return false;
+        return task == null ? session.canCreateTasks() : session.canModify(task);
     }
     
     private boolean canViewTask(Task task) {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null) return false;
-        
-        // All logged-in users can view tasks for now
-        // This can be extended with task-level visibility later
-        return true;
+        return session != null && session.canView(task);
     }
 
-    private void setupButtonHover() {
-        if (addTaskButton != null) {
-            addTaskButton.setOnMouseEntered(e -> 
-                addTaskButton.setStyle("-fx-background-color: #61bd4f; -fx-text-fill: white; -fx-font-weight: bold; -fx-cursor: hand;")
-            );
-            addTaskButton.setOnMouseExited(e -> 
-                addTaskButton.setStyle("-fx-background-color: #5aac44; -fx-text-fill: white; -fx-font-weight: bold; -fx-cursor: hand;")
-            );
-        }
+    /**
+     * Same check from the repository's index, so tasks that are not on screen are not looked up
+     */
+    private boolean canViewTask(String taskId) {
+        List<String> labels = repository.labelsOf(taskId);
+        return labels != null && session != null && session.canView(taskId, labels);
     }
 
     private void setupDragAndDrop() {
@@ -158,42 +410,52 @@ public class BoardController {
     }
 
     private void setupColumnDropTarget(VBox column, Task.Status targetStatus) {
+        Region marker = new Region();
+        marker.getStyleClass().add("drop-marker");
+        // Positioned by hand over the list, never laid out by the column
+        marker.setManaged(false);
+        marker.setMouseTransparent(true);
+        marker.setVisible(false);
+        column.getChildren().add(marker);
+        dropMarkers.put(targetStatus, marker);
+
         column.setOnDragOver(event -> {
             if (event.getGestureSource() != column && event.getDragboard().hasString()) {
                 event.acceptTransferModes(TransferMode.MOVE);
             }
+            // Over the header there is no card position to show (empty list space is marked by its cells)
+            if (event.getTarget() == column || event.getTarget() == getColumnHeader(targetStatus)) {
+                hideDropMarker(targetStatus);
+            }
             event.consume();
         });
 
         column.setOnDragEntered(event -> {
             if (event.getGestureSource() != column && event.getDragboard().hasString()) {
-                column.setStyle("-fx-background-color: rgba(255, 255, 255, 0.1); -fx-background-radius: 5;");
+                column.pseudoClassStateChanged(DRAG_TARGET, true);
             }
             event.consume();
         });
 
         column.setOnDragExited(event -> {
-            column.setStyle("");
+            column.pseudoClassStateChanged(DRAG_TARGET, false);
+            hideDropMarker(targetStatus);
             event.consume();
         });
 
         column.setOnDragDropped(event -> {
+            hideDropMarker(targetStatus);
             Dragboard db = event.getDragboard();
             boolean success = false;
             if (db.hasString()) {
                 String taskId = db.getString();
                 Task draggedTask = findTaskById(taskId);
                 if (draggedTask != null && canModifyTask(draggedTask)) {
-                    // Check if status changed
-                    boolean statusChanged = draggedTask.getStatus() != targetStatus;
-                    if (statusChanged) {
-                        draggedTask.setStatus(targetStatus);
-                    }
-                    
-                    // Reorder: move to end of the target column
-                    reorderTask(draggedTask, targetStatus, -1);
-                    StorageService.saveTasks(tasks);
-                    refreshUI();
+                    // Move to end of the target column (status changes with it)
+                    Task.Status sourceStatus = draggedTask.getStatus();
+                    String sourceRank = draggedTask.getRank();
+                    repository.moveToEnd(draggedTask, targetStatus);
+                    refreshCard(draggedTask, sourceStatus, sourceRank);
                     success = true;
                 }
             }
@@ -202,313 +464,575 @@ public class BoardController {
         });
     }
     
-    private void reorderTask(Task task, Task.Status targetStatus, int insertIndex) {
-        // Remove task from current position
-        tasks.remove(task);
-        
-        if (insertIndex < 0) {
-            // Insert at end of tasks with same status
-            int insertPos = tasks.size();
-            for (int i = 0; i < tasks.size(); i++) {
-                if (tasks.get(i).getStatus() == targetStatus) {
-                    insertPos = i + 1;
-                } else if (tasks.get(i).getStatus().ordinal() > targetStatus.ordinal()) {
-                    insertPos = i;
-                    break;
+    /**
+     * Shows the column's insertion marker centred on {@code y} (column coordinates). Only moves a single
+     * node, so the cost per drag event does not depend on the column size.
+     */
+    private void showDropMarker(Task.Status status, double y) {
+        Region marker = dropMarkers.get(status);
+        VBox column = getColumn(status);
+        double top = Math.max(y - DROP_MARKER_HEIGHT / 2, getColumnList(status).getBoundsInParent().getMinY());
+        if (!marker.isVisible() || marker.getLayoutY() != top || marker.getWidth() != column.getWidth()) {
+            marker.resizeRelocate(0, top, column.getWidth(), DROP_MARKER_HEIGHT);
+            marker.setVisible(true);
+        }
+    }
+
+    private void hideDropMarker(Task.Status status) {
+        dropMarkers.get(status).setVisible(false);
+    }
+
+    private Task findTaskById(String id) {
+        // Find task by unique ID (stored in dragboard); nothing can be moved while the board is loading
+        return repository != null ? repository.findById(id) : null;
+    }
+
+    private void refreshUI() {
+        refreshColumns(Task.Status.values());
+    }
+
+    /**
+     * Brings the given columns in line with the repository. Rendered lists are diffed against the model,
+     * so only cards that were inserted, removed or moved are touched. Every card of the columns is checked,
+     * so this is for loads and filter changes; edits of single cards go through refreshCard.
+     */
+    private void refreshColumns(Task.Status... statuses) {
+        refreshLabelFilter();
+        // Compiled per refresh, so text terms see the current search index
+        TaskQuery query = compileFilter();
+        String label = getSelectedLabel();
+        if (label == null && query != null) {
+            label = query.getRequiredLabel();
+        }
+        for (Task.Status status : EnumSet.copyOf(Arrays.asList(statuses))) {
+            List<String> visible = new ArrayList<>();
+            // Columns the filter rules out are not scanned at all
+            if (query == null || query.includesStatus(status)) {
+                // Label index gives the filtered column directly, no scan over the board
+                for (String id : repository.getColumn(status, label)) {
+                    // Only show tasks user can view; only a filter query needs the tasks themselves
+                    if (canViewTask(id) && (query == null || query.test(repository.findById(id)))) {
+                        visible.add(id);
+                    }
                 }
             }
-            tasks.add(insertPos, task);
+            reconcile(getColumnList(status).getItems(), visible);
+            updateColumnHeader(status);
+        }
+    }
+
+    /**
+     * Re-renders one card after it was added, edited, moved or deleted without checking the rest of the
+     * board. The card leaves the column it was shown in ({@code shownIn} at {@code shownRank}, null for a
+     * new card) and goes back in at its rank if it still exists, is visible to the user and passes the filter.
+     */
+    private void refreshCard(Task task, Task.Status shownIn, String shownRank) {
+        String selected = getSelectedLabel();
+        refreshLabelFilter();
+        if (!Objects.equals(selected, getSelectedLabel())) {
+            // The selected label is gone from the board, so the filter itself changed
+            refreshUI();
+            return;
+        }
+        String id = task.getId();
+        if (shownIn != null) {
+            ObservableList<String> items = getColumnList(shownIn).getItems();
+            int index = searchColumn(items, id, shownRank);
+            if (index < 0) {
+                // The column was re-keyed since it was rendered (or the card is filtered out)
+                index = items.indexOf(id);
+            }
+            if (index >= 0) {
+                items.remove(index);
+                updateColumnHeader(shownIn);
+            }
+        }
+        // Unknown ids (deleted cards) are not visible
+        if (!canViewTask(id) || !passesFilter(task)) return;
+        ObservableList<String> items = getColumnList(task.getStatus()).getItems();
+        int index = searchColumn(items, id, repository.rankOf(id));
+        if (index >= 0) {
+            // Same task, but replacing it makes the list rebind that one cell
+            items.set(index, id);
         } else {
-            // Insert at specific index
-            tasks.add(insertIndex, task);
+            items.add(-index - 1, id);
+            updateColumnHeader(task.getStatus());
         }
     }
 
-    private void setupCardDropTarget(VBox card, Task targetTask) {
-        card.setOnDragOver(event -> {
-            if (event.getGestureSource() != card && event.getDragboard().hasString()) {
-                event.acceptTransferModes(TransferMode.MOVE);
-                
-                // Show drop indicator
-                double y = event.getY();
-                double cardHeight = card.getBoundsInLocal().getHeight();
-                
-                // Determine if dropping above or below the card
-                if (y < cardHeight / 2) {
-                    // Dropping above - show indicator at top
-                    card.setStyle(card.getStyle() + " -fx-border-color: #0079bf; -fx-border-width: 2 0 0 0;");
-                } else {
-                    // Dropping below - show indicator at bottom
-                    card.setStyle(card.getStyle() + " -fx-border-color: #0079bf; -fx-border-width: 0 0 2 0;");
-                }
+    private boolean passesFilter(Task task) {
+        String label = getSelectedLabel();
+        if (label != null && !repository.labelsOf(task.getId()).contains(label)) return false;
+        TaskQuery query = compileFilter();
+        return query == null || (query.includesStatus(task.getStatus()) && query.test(task));
+    }
+
+    /**
+     * Binary search of a rendered column (rank order) for the card with the given id and rank, the other
+     * cards' ranks taken from the repository. Returns its index, or -(insertion point) - 1.
+     */
+    private int searchColumn(List<String> items, String id, String rank) {
+        int low = 0;
+        int high = items.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            String other = items.get(mid);
+            if (other.equals(id)) return mid;
+            int cmp = repository.rankOf(other).compareTo(rank);
+            if (cmp == 0) {
+                cmp = other.compareTo(id);
             }
-            event.consume();
-        });
-        
-        card.setOnDragExited(event -> {
-            // Remove drop indicator
-            String bgColor = targetTask.getBackgroundColor() != null ? 
-                targetTask.getBackgroundColor().getHex() : "#ffffff";
-            card.setStyle(
-                "-fx-background-color: " + bgColor + "; " +
-                "-fx-background-radius: 3; " +
-                "-fx-padding: 10; " +
-                "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.2), 2, 0, 0, 1); " +
-                "-fx-cursor: hand;"
-            );
-            event.consume();
-        });
-        
-        card.setOnDragDropped(event -> {
-            Dragboard db = event.getDragboard();
-            boolean success = false;
-            if (db.hasString()) {
-                String draggedTaskId = db.getString();
-                Task draggedTask = findTaskById(draggedTaskId);
-                
-                if (draggedTask != null && !draggedTask.getId().equals(targetTask.getId()) && canModifyTask(draggedTask)) {
-                    double y = event.getY();
-                    double cardHeight = card.getBoundsInLocal().getHeight();
-                    boolean dropAbove = y < cardHeight / 2;
-                    
-                    // Remove dragged task from current position
-                    int draggedIndex = tasks.indexOf(draggedTask);
-                    tasks.remove(draggedIndex);
-                    
-                    // Find target task index (may have shifted after removal)
-                    int targetIndex = tasks.indexOf(targetTask);
-                    
-                    // Determine if status needs to change
-                    boolean statusChanged = draggedTask.getStatus() != targetTask.getStatus();
-                    if (statusChanged) {
-                        draggedTask.setStatus(targetTask.getStatus());
-                    }
-                    
-                    // Calculate insert position
-                    int insertIndex;
-                    if (dropAbove) {
-                        insertIndex = targetIndex;
-                    } else {
-                        insertIndex = targetIndex + 1;
-                    }
-                    
-                    // If we removed an item before the target, adjust index
-                    if (draggedIndex < targetIndex) {
-                        // No adjustment needed, targetIndex already accounts for removal
-                    } else if (draggedIndex > targetIndex && !dropAbove) {
-                        // Removed item was after target, and we're inserting below
-                        // No adjustment needed
-                    }
-                    
-                    // Ensure we don't go out of bounds
-                    insertIndex = Math.max(0, Math.min(insertIndex, tasks.size()));
-                    
-                    tasks.add(insertIndex, draggedTask);
-                    StorageService.saveTasks(tasks);
-                    refreshUI();
-                    success = true;
-                }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
             }
-            event.setDropCompleted(success);
-            event.consume();
+        }
+        return -(low + 1);
+    }
+
+    private void updateColumnHeader(Task.Status status) {
+        int count = getColumnList(status).getItems().size();
+        getColumnHeader(status).setText(columnTitles.get(status) + " (" + count + ")");
+    }
+
+    /**
+     * The filter bar's query, or null when it is empty or invalid (the error is shown next to it)
+     */
+    private TaskQuery compileFilter() {
+        if (activeFilter.isBlank()) {
+            filterErrorLabel.setText("");
+            return null;
+        }
+        try {
+            TaskQuery query = TaskQuery.compile(activeFilter, repository);
+            filterErrorLabel.setText("");
+            return query;
+        } catch (IllegalArgumentException e) {
+            filterErrorLabel.setText(e.getMessage());
+            return null;
+        }
+    }
+
+    @FXML
+    private void onFilterApplied() {
+        activeFilter = filterField.getText() != null ? filterField.getText().trim() : "";
+        if (repository != null) {
+            refreshUI();
+        }
+    }
+
+    @FXML
+    private void onSavedFilterSelected() {
+        String name = savedFiltersBox.getValue();
+        if (name == null || session == null || updatingSavedFilters) return;
+        String query = FilterService.getSavedFilters(session.getUsername()).get(name);
+        if (query != null) {
+            filterField.setText(query);
+            onFilterApplied();
+        }
+    }
+
+    @FXML
+    private void onSaveFilterClicked() {
+        String query = filterField.getText() != null ? filterField.getText().trim() : "";
+        if (session == null || query.isEmpty() || repository == null) return;
+        try {
+            TaskQuery.compile(query, repository);
+        } catch (IllegalArgumentException e) {
+            filterErrorLabel.setText(e.getMessage());
+            return;
+        }
+
+        TextInputDialog dialog = new TextInputDialog(savedFiltersBox.getValue() != null ? savedFiltersBox.getValue() : "");
+        dialog.setTitle("Save Filter");
+        dialog.setHeaderText("Save the current filter as:");
+        dialog.initOwner(filterField.getScene().getWindow());
+        dialog.showAndWait().map(String::trim).filter(name -> !name.isEmpty()).ifPresent(name -> {
+            FilterService.saveFilter(session.getUsername(), name, query);
+            refreshSavedFilters(name);
         });
     }
 
-    private Task findTaskById(String id) {
-        // Find task by unique ID (stored in dragboard)
-        return tasks.stream()
-                .filter(t -> t.getId() != null && t.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+    @FXML
+    private void onDeleteFilterClicked() {
+        String name = savedFiltersBox.getValue();
+        if (session == null || name == null) return;
+        FilterService.deleteFilter(session.getUsername(), name);
+        refreshSavedFilters(null);
     }
 
-    private void refreshUI() {
-        // Remove all cards (keep only the header labels)
-        backlogColumn.getChildren().removeIf(n -> n.getStyleClass().contains("task-card"));
-        todoColumn.getChildren().removeIf(n -> n.getStyleClass().contains("task-card"));
-        inProgressColumn.getChildren().removeIf(n -> n.getStyleClass().contains("task-card"));
-        inReviewColumn.getChildren().removeIf(n -> n.getStyleClass().contains("task-card"));
-        waitingForRetestColumn.getChildren().removeIf(n -> n.getStyleClass().contains("task-card"));
-        doneColumn.getChildren().removeIf(n -> n.getStyleClass().contains("task-card"));
-
-        for (Task task : tasks) {
-            // Only show tasks user can view
-            if (!canViewTask(task)) {
-                continue;
+    private void refreshSavedFilters(String selected) {
+        if (session == null) return;
+        updatingSavedFilters = true;
+        savedFiltersBox.getItems().setAll(FilterService.getSavedFilters(session.getUsername()).keySet());
+        savedFiltersBox.setValue(selected);
+        updatingSavedFilters = false;
+    }
+
+    /**
+     * Re-renders a single edited card (and drops or adds it if it no longer or now matches the filter)
+     */
+    private void refreshTask(Task task) {
+        // The edited card is the only one whose match can have changed, and it is re-rendered below
+        updateSearchMatches();
+        refreshCard(task, task.getStatus(), task.getRank());
+    }
+
+    /**
+     * Edits {@code items} into {@code desired} by task id. Common head and tail are kept, a single
+     * card moved inside the span is moved, anything else only replaces the differing span.
+     */
+    private static void reconcile(ObservableList<String> items, List<String> desired) {
+        int start = 0;
+        int oldEnd = items.size();
+        int newEnd = desired.size();
+        while (start < oldEnd && start < newEnd && items.get(start).equals(desired.get(start))) {
+            start++;
+        }
+        while (oldEnd > start && newEnd > start && items.get(oldEnd - 1).equals(desired.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+        }
+        int oldLength = oldEnd - start;
+        int newLength = newEnd - start;
+        if (oldLength == 0 && newLength == 0) return;
+
+        if (oldLength == newLength && oldLength > 1) {
+            // Moved down: first card of the span is now last
+            if (items.get(start).equals(desired.get(newEnd - 1)) && sameTasks(items, start + 1, desired, start, oldLength - 1)) {
+                items.add(newEnd - 1, items.remove(start));
+                return;
             }
-            
-            VBox card = createTaskCard(task);
-            
-            switch (task.getStatus()) {
-                case BACKLOG -> backlogColumn.getChildren().add(card);
-                case TODO -> todoColumn.getChildren().add(card);
-                case IN_PROGRESS -> inProgressColumn.getChildren().add(card);
-                case IN_REVIEW -> inReviewColumn.getChildren().add(card);
-                case WAITING_FOR_RETEST -> waitingForRetestColumn.getChildren().add(card);
-                case DONE -> doneColumn.getChildren().add(card);
+            // Moved up: last card of the span is now first
+            if (items.get(oldEnd - 1).equals(desired.get(start)) && sameTasks(items, start, desired, start + 1, oldLength - 1)) {
+                items.add(start, items.remove(oldEnd - 1));
+                return;
             }
         }
+
+        if (oldLength > 0) {
+            items.remove(start, oldEnd);
+        }
+        if (newLength > 0) {
+            items.addAll(start, desired.subList(start, newEnd));
+        }
     }
 
-    private VBox createTaskCard(Task task) {
-        VBox card = new VBox(8);
-        card.getStyleClass().add("task-card");
-        
-        // Set background color
-        String bgColor = task.getBackgroundColor() != null ? 
-            task.getBackgroundColor().getHex() : "#ffffff";
-        card.setStyle(
-            "-fx-background-color: " + bgColor + "; " +
-            "-fx-background-radius: 3; " +
-            "-fx-padding: 10; " +
-            "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.2), 2, 0, 0, 1); " +
-            "-fx-cursor: hand;"
-        );
-        card.setMaxWidth(Double.MAX_VALUE);
-        card.setMinHeight(60);
-
-        // Labels at the top
-        if (task.getLabels() != null && !task.getLabels().isEmpty()) {
-            FlowPane labelsPane = new FlowPane(5, 5);
-            labelsPane.setMaxWidth(Double.MAX_VALUE);
-            for (String label : task.getLabels()) {
-                Label labelTag = new Label(label);
-                labelTag.setTextFill(Color.BLACK);
-                labelTag.setStyle(
-                    "-fx-background-color: #e4e6ea; " +
-                    "-fx-background-radius: 3; " +
-                    "-fx-padding: 2 6; " +
-                    "-fx-font-size: 10px;"
-                );
-                labelsPane.getChildren().add(labelTag);
-            }
-            card.getChildren().add(labelsPane);
+    private static boolean sameTasks(List<String> a, int fromA, List<String> b, int fromB, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!a.get(fromA + i).equals(b.get(fromB + i))) return false;
         }
+        return true;
+    }
 
-        Label titleLabel = new Label(task.getTitle());
-        titleLabel.setTextFill(Color.BLACK);
-        titleLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-wrap-text: true;");
-        titleLabel.setWrapText(true);
-        titleLabel.setMaxWidth(Double.MAX_VALUE);
-        card.getChildren().add(titleLabel);
+    /**
+     * Keeps the label filter choices in sync with the labels used on the board
+     */
+    private void refreshLabelFilter() {
+        if (labelFilterBox == null) return;
+        List<String> choices = new ArrayList<>();
+        choices.add(ALL_LABELS);
+        choices.addAll(repository.getLabels());
+        if (!choices.equals(labelFilterBox.getItems())) {
+            String selected = labelFilterBox.getValue();
+            updatingLabelFilter = true;
+            labelFilterBox.getItems().setAll(choices);
+            labelFilterBox.setValue(choices.contains(selected) ? selected : null);
+            updatingLabelFilter = false;
+        }
+    }
 
-        if (task.getDescription() != null && !task.getDescription().isEmpty() && !task.getDescription().equals("Description")) {
-            Label descLabel = new Label(task.getDescription());
-            descLabel.setTextFill(Color.rgb(51, 51, 51)); // Dark gray
-            descLabel.setStyle("-fx-font-size: 12px; -fx-wrap-text: true;");
+    private String getSelectedLabel() {
+        if (labelFilterBox == null) return null;
+        String selected = labelFilterBox.getValue();
+        return selected == null || selected.equals(ALL_LABELS) ? null : selected;
+    }
+
+    @FXML
+    private void onLabelFilterChanged() {
+        if (repository != null && !updatingLabelFilter) {
+            refreshUI();
+        }
+    }
+
+    /**
+     * The column header is the first child of every column in board.fxml
+     */
+    private Label getColumnHeader(Task.Status status) {
+        return (Label) getColumn(status).getChildren().get(0);
+    }
+
+    private VBox getColumn(Task.Status status) {
+        return switch (status) {
+            case BACKLOG -> backlogColumn;
+            case TODO -> todoColumn;
+            case IN_PROGRESS -> inProgressColumn;
+            case IN_REVIEW -> inReviewColumn;
+            case WAITING_FOR_RETEST -> waitingForRetestColumn;
+            case DONE -> doneColumn;
+        };
+    }
+
+    private ListView<String> getColumnList(Task.Status status) {
+        return switch (status) {
+            case BACKLOG -> backlogList;
+            case TODO -> todoList;
+            case IN_PROGRESS -> inProgressList;
+            case IN_REVIEW -> inReviewList;
+            case WAITING_FOR_RETEST -> waitingForRetestList;
+            case DONE -> doneList;
+        };
+    }
+
+    /**
+     * Card cell of a column list. A ListView only creates cells for the visible rows and rebinds
+     * them while scrolling, so a column costs a screenful of card nodes however many tasks it holds.
+     */
+    private class TaskCardCell extends ListCell<String> {
+        private final Task.Status status;
+        private final VBox card = new VBox(8);
+        private final FlowPane labelsPane = new FlowPane(5, 5);
+        private final Label titleLabel = new Label();
+        private final Label descLabel = new Label();
+        private String colorClass;
+
+        TaskCardCell(Task.Status status) {
+            this.status = status;
+            // Look comes from board.css, the card only switches classes and pseudo-classes
+            card.getStyleClass().add("task-card");
+            card.setMaxWidth(Double.MAX_VALUE);
+
+            labelsPane.setMaxWidth(Double.MAX_VALUE);
+
+            titleLabel.getStyleClass().add("task-card-title");
+            titleLabel.setWrapText(true);
+            titleLabel.setMaxWidth(Double.MAX_VALUE);
+
+            descLabel.getStyleClass().add("task-card-description");
             descLabel.setWrapText(true);
             descLabel.setMaxWidth(Double.MAX_VALUE);
-            card.getChildren().add(descLabel);
+
+            card.getChildren().addAll(labelsPane, titleLabel, descLabel);
+
+            // Let the card wrap to the column width instead of widening the list
+            setPrefWidth(0);
+
+            // Click handler to open task details (only if not dragging)
+            card.setOnMouseClicked(e -> {
+                Task task = getTask();
+                if (e.getClickCount() == 1 && task != null && repository != null && canViewTask(task)) {
+                    openTaskDetail(task);
+                }
+            });
+
+            setupDragSource();
+            setupDropTarget();
         }
 
-        // Click handler to open task details (only if not dragging)
-        card.setOnMouseClicked(e -> {
-            if (e.getClickCount() == 1 && canViewTask(task)) {
-                openTaskDetail(task);
-            }
-        });
+        /**
+         * The task of this row, looked up by id (decoded from the store on a memory-mapped board)
+         */
+        private Task getTask() {
+            String id = getItem();
+            if (id == null) return null;
+            return repository != null ? repository.findById(id) : loadingTasks.get(id);
+        }
 
-        // Drag and drop handlers
-        card.setOnDragDetected((MouseEvent event) -> {
-            if (!canModifyTask(task)) {
-                event.consume();
-                return; // Read-only users can't drag
+        @Override
+        protected void updateItem(String id, boolean empty) {
+            super.updateItem(id, empty);
+            setText(null);
+            Task task = empty ? null : getTask();
+            if (task == null) {
+                setGraphic(null);
+                return;
             }
-            
-            Dragboard dragboard = card.startDragAndDrop(TransferMode.MOVE);
-            ClipboardContent content = new ClipboardContent();
-            // Use unique ID as identifier
-            content.putString(task.getId());
-            dragboard.setContent(content);
-            card.setOpacity(0.5);
-            event.consume();
-        });
 
-        card.setOnDragDone((DragEvent event) -> {
+            // Background color
+            String nextColorClass = (task.getBackgroundColor() != null ?
+                task.getBackgroundColor() : Task.BackgroundColor.WHITE).getStyleClass();
+            if (!nextColorClass.equals(colorClass)) {
+                if (colorClass != null) {
+                    card.getStyleClass().remove(colorClass);
+                }
+                card.getStyleClass().add(nextColorClass);
+                colorClass = nextColorClass;
+            }
             card.setOpacity(1.0);
-            // Remove any drop indicators
-            VBox parent = (VBox) card.getParent();
-            if (parent != null) {
-                for (var child : parent.getChildren()) {
-                    if (child.getStyleClass().contains("drop-indicator")) {
-                        child.setStyle("");
-                        child.getStyleClass().remove("drop-indicator");
+            card.pseudoClassStateChanged(SEARCH_MATCH, searchMatches.contains(task.getId()));
+
+            // Labels at the top
+            bindLabels(task.getLabels() != null ? task.getLabels() : List.of());
+
+            titleLabel.setText(task.getTitle());
+
+            boolean hasDescription = task.getDescription() != null && !task.getDescription().isEmpty()
+                    && !task.getDescription().equals("Description");
+            descLabel.setText(hasDescription ? task.getDescription() : null);
+            descLabel.setVisible(hasDescription);
+            descLabel.setManaged(hasDescription);
+
+            setGraphic(card);
+        }
+
+        /**
+         * Reuses the label chips already in the card, taking extra ones from the pool and returning surplus ones
+         */
+        private void bindLabels(List<String> labels) {
+            List<Node> chips = labelsPane.getChildren();
+            while (chips.size() > labels.size()) {
+                labelChipPool.push((Label) chips.remove(chips.size() - 1));
+            }
+            while (chips.size() < labels.size()) {
+                chips.add(labelChipPool.isEmpty() ? createLabelChip() : labelChipPool.pop());
+            }
+            for (int i = 0; i < labels.size(); i++) {
+                ((Label) chips.get(i)).setText(labels.get(i));
+            }
+            boolean hasLabels = !labels.isEmpty();
+            labelsPane.setVisible(hasLabels);
+            labelsPane.setManaged(hasLabels);
+        }
+
+        private void setupDragSource() {
+            setOnDragDetected((MouseEvent event) -> {
+                Task task = getTask();
+                if (isEmpty() || task == null || repository == null || !canModifyTask(task)) {
+                    event.consume();
+                    return; // Read-only users can't drag, and nothing moves before the board is loaded
+                }
+
+                Dragboard dragboard = startDragAndDrop(TransferMode.MOVE);
+                ClipboardContent content = new ClipboardContent();
+                // Use unique ID as identifier
+                content.putString(task.getId());
+                dragboard.setContent(content);
+                card.setOpacity(0.5);
+                event.consume();
+            });
+
+            setOnDragDone((DragEvent event) -> {
+                card.setOpacity(1.0);
+                for (Task.Status column : Task.Status.values()) {
+                    hideDropMarker(column);
+                }
+                event.consume();
+            });
+        }
+
+        /**
+         * Filled cells take drops above/below their card. Empty cells only mark the end of the list
+         * and leave the drop to the column, which appends the task there.
+         */
+        private void setupDropTarget() {
+            setOnDragOver(event -> {
+                if (!event.getDragboard().hasString()) return;
+                Bounds bounds = getColumn(status).sceneToLocal(localToScene(getLayoutBounds()));
+                if (isEmpty()) {
+                    // Empty cells all have the same height: the list ends where the first one starts
+                    int emptyBefore = getIndex() - getListView().getItems().size();
+                    showDropMarker(status, bounds.getMinY() - emptyBefore * getHeight() - CARD_GAP / 2);
+                    return;
+                }
+                if (event.getGestureSource() != this) {
+                    event.acceptTransferModes(TransferMode.MOVE);
+                    // Marker in the gap above or below the card
+                    showDropMarker(status, isDropAbove(event) ? bounds.getMinY() - CARD_GAP / 2 : bounds.getMaxY() - CARD_GAP / 2);
+                }
+                event.consume();
+            });
+
+            setOnDragDropped(event -> {
+                if (isEmpty()) return;
+                hideDropMarker(status);
+                Dragboard db = event.getDragboard();
+                boolean success = false;
+                Task targetTask = getTask();
+                if (db.hasString() && targetTask != null) {
+                    Task draggedTask = findTaskById(db.getString());
+
+                    if (draggedTask != null && !draggedTask.getId().equals(targetTask.getId()) && canModifyTask(draggedTask)) {
+                        // Insert above or below the target card, taking over its status
+                        Task.Status sourceStatus = draggedTask.getStatus();
+                        String sourceRank = draggedTask.getRank();
+                        repository.moveNextTo(draggedTask, targetTask, isDropAbove(event));
+                        refreshCard(draggedTask, sourceStatus, sourceRank);
+                        success = true;
                     }
                 }
-            }
-            event.consume();
-        });
-        
-        // Make card a drop target for reordering
-        setupCardDropTarget(card, task);
-
-        // Hover effects
-        card.setOnMouseEntered(e -> {
-            card.setStyle(
-                "-fx-background-color: " + bgColor + "; " +
-                "-fx-background-radius: 3; " +
-                "-fx-padding: 10; " +
-                "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.3), 4, 0, 0, 2); " +
-                "-fx-cursor: hand;"
-            );
-        });
+                event.setDropCompleted(success);
+                event.consume();
+            });
+        }
 
-        card.setOnMouseExited(e -> {
-            card.setStyle(
-                "-fx-background-color: " + bgColor + "; " +
-                "-fx-background-radius: 3; " +
-                "-fx-padding: 10; " +
-                "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.2), 2, 0, 0, 1); " +
-                "-fx-cursor: hand;"
-            );
-        });
+        private boolean isDropAbove(DragEvent event) {
+            return event.getY() < getHeight() / 2;
+        }
+    }
 
-        return card;
+    private static Label createLabelChip() {
+        Label chip = new Label();
+        chip.getStyleClass().add("task-card-label");
+        return chip;
     }
 
     private void openTaskDetail(Task task) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/app/views/taskDetail.fxml"));
-            BorderPane root = loader.load();
-            Scene scene = new Scene(root);
-            
-            TaskDetailController controller = loader.getController();
-            controller.setTask(task, tasks, this::refreshUI, this::refreshUI);
-            
-            Stage stage = new Stage();
-            stage.setTitle("Task Details");
-            stage.setScene(scene);
-            stage.initModality(Modality.WINDOW_MODAL);
-            stage.initOwner(addTaskButton.getScene().getWindow());
-            stage.setResizable(true);
-            // Size to fit content, but with reasonable min/max
-            stage.sizeToScene();
-            stage.setMinWidth(500);
-            stage.setMinHeight(400);
-            stage.setMaxWidth(800);
-            stage.setMaxHeight(900);
-            stage.show();
+            if (detailStage == null) {
+                createTaskDetailStage();
+            }
+            detailController.setTask(session, task, repository, () -> refreshTask(task), () -> {
+                updateSearchMatches();
+                refreshCard(task, task.getStatus(), task.getRank());
+            });
+            detailStage.show();
+            detailStage.toFront();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * The detail window is built once per board and re-bound to the clicked task through setTask;
+     * closing it only hides it.
+     */
+    private void createTaskDetailStage() throws IOException {
+        FXMLLoader loader = ViewPreloader.load(ViewPreloader.TASK_DETAIL_VIEW);
+        BorderPane root = loader.getRoot();
+        Scene scene = new Scene(root);
+        detailController = loader.getController();
+
+        Stage stage = new Stage();
+        stage.setTitle("Task Details");
+        stage.setScene(scene);
+        stage.initModality(Modality.WINDOW_MODAL);
+        stage.initOwner(addTaskButton.getScene().getWindow());
+        stage.setResizable(true);
+        // Size to fit content, but with reasonable min/max
+        stage.sizeToScene();
+        stage.setMinWidth(500);
+        stage.setMinHeight(400);
+        stage.setMaxWidth(800);
+        stage.setMaxHeight(900);
+        detailStage = stage;
+    }
+
     public void onAddTaskClicked() {
-        if (!canModifyTask(null)) {
+        if (repository == null || !canModifyTask(null)) {
             return; // Read-only users can't add tasks
         }
         
         Task newTask = new Task("New Task", "Description", Task.Status.BACKLOG);
-        tasks.add(newTask);
-        StorageService.saveTasks(tasks);
-        refreshUI();
+        repository.add(newTask);
+        refreshCard(newTask, null, null);
         // Open task detail dialog for the new task
         openTaskDetail(newTask);
     }
 
     @FXML
     private void onManageUsersClicked() {
-        if (!UserService.isAdmin()) {
+        if (session == null || !session.isAdmin()) {
             return;
         }
 
@@ -527,10 +1051,24 @@ public class BoardController {
             titleLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
             root.getChildren().add(titleLabel);
 
+            // Only one page of users is fetched at a time; permission edits are collected and saved together
+            Map<String, User.Permission> pendingChanges = new LinkedHashMap<>();
+            int[] currentPage = {0};
+
+            // Filters, applied by UserService while paging
+            TextField nameFilterField = new TextField();
+            nameFilterField.setPromptText("Filter by username");
+            ComboBox<String> permissionFilterBox = new ComboBox<>();
+            permissionFilterBox.getItems().add(ALL_PERMISSIONS);
+            for (User.Permission permission : User.Permission.values()) {
+                permissionFilterBox.getItems().add(permission.name());
+            }
+            permissionFilterBox.setValue(ALL_PERMISSIONS);
+            HBox filterBar = new HBox(10, nameFilterField, permissionFilterBox);
+
             // Create table view for users
             TableView<User> userTable = new TableView<>();
-            ObservableList<User> users = FXCollections.observableArrayList(UserService.getAllUsers());
-            userTable.setItems(users);
+            userTable.setPlaceholder(new Label("No matching users"));
 
             // Username column
             TableColumn<User, String> usernameColumn = new TableColumn<>("Username");
@@ -542,47 +1080,42 @@ public class BoardController {
             permissionColumn.setCellValueFactory(new PropertyValueFactory<>("permission"));
             permissionColumn.setPrefWidth(150);
 
-            // Permission combo box column
+            Button saveChangesButton = new Button("Save Changes");
+            saveChangesButton.setDisable(true);
+            saveChangesButton.setStyle("-fx-background-color: #5aac44; -fx-text-fill: white; -fx-font-weight: bold;");
+            Runnable updateSaveButton = () -> {
+                saveChangesButton.setDisable(pendingChanges.isEmpty());
+                saveChangesButton.setText(pendingChanges.isEmpty() ? "Save Changes" : "Save Changes (" + pendingChanges.size() + ")");
+            };
+
+            // Permission combo box column; a change is only staged until Save Changes
             TableColumn<User, User.Permission> changePermissionColumn = new TableColumn<>("Change Permission");
             changePermissionColumn.setPrefWidth(200);
             changePermissionColumn.setCellFactory(column -> new TableCell<User, User.Permission>() {
                 private final ComboBox<User.Permission> comboBox = new ComboBox<>();
+                private boolean updating = false;
 
                 {
                     comboBox.getItems().addAll(User.Permission.values());
                     comboBox.setOnAction(e -> {
-                        User user = getTableView().getItems().get(getIndex());
-                        if (user == null) return;
-                        
-                        if (user.getUsername().equals("admin")) {
-                            showAlert(Alert.AlertType.WARNING, "Warning", "The default admin account's permission cannot be changed.");
-                            comboBox.setValue(user.getPermission());
-                            return;
-                        }
-                        
-                        if (user.getUsername().equals(UserService.getCurrentUser().getUsername())) {
-                            showAlert(Alert.AlertType.WARNING, "Warning", "You cannot change your own permission.");
-                            comboBox.setValue(user.getPermission());
-                            return;
-                        }
-                        
+                        User user = getTableRow().getItem();
                         User.Permission newPermission = comboBox.getValue();
-                        if (newPermission != null && newPermission != user.getPermission()) {
-                            if (UserService.updateUserPermission(user.getUsername(), newPermission)) {
-                                // Update the user object in the list
-                                user.setPermission(newPermission);
-                                // Refresh the table to show updated data
-                                userTable.refresh();
-                                showAlert(Alert.AlertType.INFORMATION, "Success", "Permission updated successfully for user: " + user.getUsername());
-                            } else {
-                                showAlert(Alert.AlertType.ERROR, "Error", "Failed to update permission.");
-                                // Reset combo box to current permission
-                                comboBox.setValue(user.getPermission());
-                            }
+                        if (updating || user == null || newPermission == null) return;
+
+                        if (newPermission == user.getPermission()) {
+                            pendingChanges.remove(user.getUsername());
+                        } else {
+                            pendingChanges.put(user.getUsername(), newPermission);
                         }
+                        showPending(user);
+                        updateSaveButton.run();
                     });
                 }
 
+                private void showPending(User user) {
+                    comboBox.setStyle(pendingChanges.containsKey(user.getUsername()) ? "-fx-border-color: #f2d600;" : "");
+                }
+
                 @Override
                 protected void updateItem(User.Permission item, boolean empty) {
                     super.updateItem(item, empty);
@@ -590,15 +1123,17 @@ public class BoardController {
                         setGraphic(null);
                     } else {
                         User user = getTableRow().getItem();
-                        comboBox.setValue(user.getPermission());
+                        updating = true;
+                        comboBox.setValue(pendingChanges.getOrDefault(user.getUsername(), user.getPermission()));
+                        updating = false;
                         // Disable if it's the current admin user or the default admin account
-                        if (user.getUsername().equals(UserService.getCurrentUser().getUsername()) || 
+                        if (user.getUsername().equals(session.getUsername()) || 
                             user.getUsername().equals("admin")) {
                             comboBox.setDisable(true);
                             comboBox.setStyle("-fx-opacity: 0.5;");
                         } else {
                             comboBox.setDisable(false);
-                            comboBox.setStyle("");
+                            showPending(user);
                         }
                         setGraphic(comboBox);
                     }
@@ -606,7 +1141,62 @@ public class BoardController {
             });
 
             userTable.getColumns().addAll(usernameColumn, permissionColumn, changePermissionColumn);
-            userTable.setPrefHeight(400);
+            userTable.setPrefHeight(320);
+
+            // Pager
+            Button previousPageButton = new Button("< Previous");
+            Button nextPageButton = new Button("Next >");
+            Label pageLabel = new Label();
+            HBox pager = new HBox(10, previousPageButton, pageLabel, nextPageButton, saveChangesButton);
+            pager.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+
+            Runnable loadPage = () -> {
+                String permissionFilter = permissionFilterBox.getValue();
+                User.Permission permission = ALL_PERMISSIONS.equals(permissionFilter) ? null : User.Permission.valueOf(permissionFilter);
+                UserService.UserPage page = UserService.getUsers(session, nameFilterField.getText(), permission,
+                        currentPage[0] * USER_PAGE_SIZE, USER_PAGE_SIZE);
+                int pageCount = Math.max(1, (page.getTotal() + USER_PAGE_SIZE - 1) / USER_PAGE_SIZE);
+                if (currentPage[0] >= pageCount) {
+                    // The filter shrank the result below the current page
+                    currentPage[0] = pageCount - 1;
+                    page = UserService.getUsers(session, nameFilterField.getText(), permission,
+                            currentPage[0] * USER_PAGE_SIZE, USER_PAGE_SIZE);
+                }
+                userTable.getItems().setAll(page.getUsers());
+                pageLabel.setText("Page " + (currentPage[0] + 1) + " of " + pageCount + " (" + page.getTotal() + " users)");
+                previousPageButton.setDisable(currentPage[0] == 0);
+                nextPageButton.setDisable(currentPage[0] >= pageCount - 1);
+            };
+
+            previousPageButton.setOnAction(e -> {
+                currentPage[0]--;
+                loadPage.run();
+            });
+            nextPageButton.setOnAction(e -> {
+                currentPage[0]++;
+                loadPage.run();
+            });
+            nameFilterField.textProperty().addListener((obs, oldText, newText) -> {
+                currentPage[0] = 0;
+                loadPage.run();
+            });
+            permissionFilterBox.setOnAction(e -> {
+                currentPage[0] = 0;
+                loadPage.run();
+            });
+            saveChangesButton.setOnAction(e -> {
+                // One write of users.json for the whole batch
+                if (UserService.updateUserPermissions(session, pendingChanges)) {
+                    int count = pendingChanges.size();
+                    pendingChanges.clear();
+                    updateSaveButton.run();
+                    loadPage.run();
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "Permission updated successfully for " + count + (count == 1 ? " user." : " users."));
+                } else {
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to update permissions.");
+                }
+            });
+            loadPage.run();
 
             // Info label
             Label infoLabel = new Label("Note: The default admin account (username: admin) and your own account cannot have their permissions changed. New users are registered with READ_ONLY permission by default.");
@@ -615,14 +1205,31 @@ public class BoardController {
 
             // Close button
             Button closeButton = new Button("Close");
-            closeButton.setOnAction(e -> userManagementStage.close());
+            closeButton.setOnAction(e -> {
+                if (!pendingChanges.isEmpty()) {
+                    Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+                    alert.setTitle("Unsaved Changes");
+                    alert.setHeaderText("Discard " + pendingChanges.size() + " unsaved permission change(s)?");
+                    if (alert.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+                        return;
+                    }
+                }
+                userManagementStage.close();
+            });
             closeButton.setStyle("-fx-background-color: #eb5a46; -fx-text-fill: white; -fx-font-weight: bold; -fx-padding: 8 20;");
 
-            root.getChildren().addAll(userTable, infoLabel, closeButton);
+            root.getChildren().addAll(filterBar, userTable, pager, infoLabel, createAccessRulesPane(), closeButton);
 
-            Scene scene = new Scene(root, 600, 500);
+            Scene scene = new Scene(root, 700, 800);
             userManagementStage.setScene(scene);
             userManagementStage.setResizable(false);
+            // Permission and rule changes can hide or show cards
+            userManagementStage.setOnHidden(e -> {
+                if (repository != null) {
+                    updateSearchMatches();
+                    refreshUI();
+                }
+            });
             userManagementStage.show();
         } catch (Exception e) {
             e.printStackTrace();
@@ -630,6 +1237,87 @@ public class BoardController {
         }
     }
 
+    /**
+     * Lists the task and label access rules with a form to add and remove them (see AccessControl)
+     */
+    private VBox createAccessRulesPane() {
+        Label titleLabel = new Label("Access Rules");
+        titleLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+        ListView<AccessRule> rulesList = new ListView<>(FXCollections.observableArrayList(AccessControl.getRules()));
+        rulesList.setPrefHeight(150);
+        rulesList.setPlaceholder(new Label("No rules, access follows the permission level"));
+        rulesList.setCellFactory(list -> new ListCell<AccessRule>() {
+            @Override
+            protected void updateItem(AccessRule rule, boolean empty) {
+                super.updateItem(rule, empty);
+                if (empty || rule == null) {
+                    setText(null);
+                    return;
+                }
+                Task task = rule.getTaskId() != null && repository != null ? repository.findById(rule.getTaskId()) : null;
+                setText(task != null ? rule + " (" + task.getTitle() + ")" : rule.toString());
+            }
+        });
+
+        ComboBox<String> targetTypeBox = new ComboBox<>(FXCollections.observableArrayList("Label", "Task id"));
+        targetTypeBox.setValue("Label");
+        ComboBox<String> targetBox = new ComboBox<>();
+        targetBox.setEditable(true);
+        targetBox.setPromptText("Label");
+        if (repository != null) {
+            targetBox.getItems().setAll(repository.getLabels());
+        }
+        targetTypeBox.setOnAction(e -> targetBox.setPromptText(targetTypeBox.getValue()));
+
+        // Everyone, a permission level, or any other text as a username
+        ComboBox<String> subjectBox = new ComboBox<>(FXCollections.observableArrayList(
+                "Everyone", User.Permission.PERMITTED.name(), User.Permission.READ_ONLY.name()));
+        subjectBox.setEditable(true);
+        subjectBox.setValue("Everyone");
+        ComboBox<AccessRule.Access> accessBox = new ComboBox<>(FXCollections.observableArrayList(AccessRule.Access.values()));
+        accessBox.setValue(AccessRule.Access.NONE);
+
+        Button addButton = new Button("Add");
+        addButton.setOnAction(e -> {
+            String target = targetBox.getEditor().getText().trim();
+            String subject = subjectBox.getEditor().getText().trim();
+            if (target.isEmpty()) return;
+            boolean taskRule = "Task id".equals(targetTypeBox.getValue());
+            User.Permission role = null;
+            String username = null;
+            if (subject.equals(User.Permission.PERMITTED.name()) || subject.equals(User.Permission.READ_ONLY.name())) {
+                role = User.Permission.valueOf(subject);
+            } else if (!subject.isEmpty() && !subject.equals("Everyone")) {
+                username = subject;
+            }
+            AccessRule rule = new AccessRule(taskRule ? target : null, taskRule ? null : target, username, role, accessBox.getValue());
+            if (AccessControl.addRule(rule)) {
+                rulesList.getItems().add(rule);
+                targetBox.getEditor().clear();
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Error", "The access rule needs a target and an access level.");
+            }
+        });
+
+        Button removeButton = new Button("Remove");
+        removeButton.setOnAction(e -> {
+            AccessRule rule = rulesList.getSelectionModel().getSelectedItem();
+            if (rule != null && AccessControl.removeRule(rule)) {
+                rulesList.getItems().remove(rule);
+            }
+        });
+
+        HBox form = new HBox(8, targetTypeBox, targetBox, subjectBox, accessBox, addButton, removeButton);
+        form.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+
+        Label hintLabel = new Label("Task rules override label rules; user rules override role rules. NONE on any label hides the card. Admins are not affected.");
+        hintLabel.setStyle("-fx-text-fill: #666;");
+        hintLabel.setWrapText(true);
+
+        return new VBox(8, titleLabel, rulesList, form, hintLabel);
+    }
+
     private void showAlert(Alert.AlertType type, String title, String message) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -1,9 +1,13 @@
 package app.controllers;
 
+import app.services.Session;
+import app.services.StorageService;
 import app.services.UserService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -14,10 +18,13 @@ public class LoginController {
     @FXML private TextField usernameField;
     @FXML private PasswordField passwordField;
     @FXML private Label errorLabel;
+    @FXML private Button loginButton;
 
     @FXML
     public void initialize() {
         errorLabel.setVisible(false);
+        // Read the board and parse its views while the user types their credentials
+        ViewPreloader.preloadBoard();
     }
 
     @FXML
@@ -30,12 +37,21 @@ public class LoginController {
             return;
         }
 
-        if (UserService.login(username, password)) {
-            // Close login window and open main board
-            openBoard();
-        } else {
-            showError("Invalid username or password.");
-        }
+        // Password verification is deliberately slow, keep the window responsive meanwhile
+        loginButton.setDisable(true);
+        errorLabel.setVisible(false);
+        UserService.loginAsync(username, password, StorageService.getDefault()).whenComplete((session, error) -> Platform.runLater(() -> {
+            loginButton.setDisable(false);
+            if (error != null) {
+                error.printStackTrace();
+            }
+            if (session != null) {
+                // Close login window and open main board
+                openBoard(session);
+            } else {
+                showError("Invalid username or password.");
+            }
+        }));
     }
 
     @FXML
@@ -59,10 +75,12 @@ public class LoginController {
         }
     }
 
-    private void openBoard() {
+    private void openBoard(Session session) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/app/views/board.fxml"));
-            Scene scene = new Scene(loader.load());
+            FXMLLoader loader = ViewPreloader.load(ViewPreloader.BOARD_VIEW);
+            Scene scene = new Scene(loader.getRoot());
+            BoardController controller = loader.getController();
+            controller.start(session);
             
             Stage stage = new Stage();
             stage.setTitle("Task Manager");
@@ -72,6 +90,8 @@ public class LoginController {
             stage.setWidth(1400);
             stage.setHeight(700);
             stage.setResizable(true);
+            // Write out any queued saves when the board window is closed
+            stage.setOnCloseRequest(e -> session.getStorage().flush());
             
             // Close login window
             Stage currentStage = (Stage) usernameField.getScene().getWindow();
@@ -2,9 +2,11 @@ package app.controllers;
 
 import app.models.User;
 import app.services.UserService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -17,6 +19,7 @@ public class RegisterController {
     @FXML private PasswordField confirmPasswordField;
     @FXML private Label errorLabel;
     @FXML private Label successLabel;
+    @FXML private Button registerButton;
 
     @FXML
     public void initialize() {
@@ -52,15 +55,22 @@ public class RegisterController {
         }
 
         // Register with default READ_ONLY permission (only admin can change permissions)
-        if (UserService.register(username, password)) {
-            showSuccess("Registration successful! You can now login.");
-            // Clear fields
-            usernameField.clear();
-            passwordField.clear();
-            confirmPasswordField.clear();
-        } else {
-            showError("Username already exists. Please choose a different username.");
-        }
+        registerButton.setDisable(true);
+        UserService.registerAsync(username, password).whenComplete((success, error) -> Platform.runLater(() -> {
+            registerButton.setDisable(false);
+            if (error != null) {
+                error.printStackTrace();
+            }
+            if (Boolean.TRUE.equals(success)) {
+                showSuccess("Registration successful! You can now login.");
+                // Clear fields
+                usernameField.clear();
+                passwordField.clear();
+                confirmPasswordField.clear();
+            } else {
+                showError("Username already exists. Please choose a different username.");
+            }
+        }));
     }
 
     @FXML
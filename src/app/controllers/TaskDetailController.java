@@ -2,9 +2,9 @@ package app.controllers;
 
 import app.models.Comment;
 import app.models.Task;
-import app.models.User;
-import app.services.StorageService;
-import app.services.UserService;
+import app.services.Session;
+import app.services.TaskRepository;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -20,53 +20,63 @@ public class TaskDetailController {
     @FXML private TextField newLabelField;
     @FXML private FlowPane labelsContainer;
     @FXML private Label creationDateLabel;
-    @FXML private VBox commentsContainer;
+    @FXML private ListView<Comment> commentsList;
     @FXML private TextArea newCommentArea;
     @FXML private Button saveButton;
     @FXML private Button deleteButton;
 
+    // Comments shown per page; older pages are added while scrolling up
+    private static final int COMMENT_PAGE_SIZE = 50;
+
     private Task task;
-    private List<Task> allTasks;
+    // Index in task.getComments() of the oldest comment currently in the list
+    private int commentsLoadedFrom;
+    private boolean loadingOlderComments = false;
+    private Session session;
+    private TaskRepository repository;
     private Runnable onTaskUpdated;
     private Runnable onTaskDeleted;
 
-    public void setTask(Task task, List<Task> allTasks, Runnable onTaskUpdated, Runnable onTaskDeleted) {
+    public void setTask(Session session, Task task, TaskRepository repository, Runnable onTaskUpdated, Runnable onTaskDeleted) {
+        this.session = session;
         this.task = task;
-        this.allTasks = allTasks;
+        this.repository = repository;
         this.onTaskUpdated = onTaskUpdated;
         this.onTaskDeleted = onTaskDeleted;
+        setupPermissionBasedUI();
+        // Comments and the issue description are not part of the board data, fetch them now
+        repository.getStorage().loadTaskDetails(task);
         loadTaskData();
     }
 
+    /**
+     * Only builds the view; the view may be preloaded before anyone is logged in (see ViewPreloader),
+     * so permissions are applied in setTask.
+     */
     @FXML
     public void initialize() {
         setupColorButtons();
-        setupPermissionBasedUI();
+        commentsList.setCellFactory(list -> new CommentCell());
+        commentsList.setPlaceholder(new Label("No comments yet"));
     }
     
     private void setupPermissionBasedUI() {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null) return;
+        boolean canModify = session.canModify(task);
         
-        boolean canModify = currentUser.getPermission() == User.Permission.ADMIN || 
-                           currentUser.getPermission() == User.Permission.PERMITTED;
-        
-        if (!canModify) {
-            // Read-only: disable all editing fields
-            if (titleField != null) titleField.setEditable(false);
-            if (descriptionArea != null) descriptionArea.setEditable(false);
-            if (newLabelField != null) newLabelField.setEditable(false);
-            if (newCommentArea != null) newCommentArea.setEditable(false);
-            if (colorButtonsContainer != null) {
-                for (var node : colorButtonsContainer.getChildren()) {
-                    if (node instanceof javafx.scene.control.Button) {
-                        ((javafx.scene.control.Button) node).setDisable(true);
-                    }
+        // Read-only: disable all editing fields
+        if (titleField != null) titleField.setEditable(canModify);
+        if (descriptionArea != null) descriptionArea.setEditable(canModify);
+        if (newLabelField != null) newLabelField.setEditable(canModify);
+        if (newCommentArea != null) newCommentArea.setEditable(canModify);
+        if (colorButtonsContainer != null) {
+            for (var node : colorButtonsContainer.getChildren()) {
+                if (node instanceof javafx.scene.control.Button) {
+                    ((javafx.scene.control.Button) node).setDisable(!canModify);
                 }
             }
-            if (saveButton != null) saveButton.setVisible(false);
-            if (deleteButton != null) deleteButton.setVisible(false);
         }
+        if (saveButton != null) saveButton.setVisible(canModify);
+        if (deleteButton != null) deleteButton.setVisible(canModify);
     }
 
     private void loadTaskData() {
@@ -75,6 +85,9 @@ public class TaskDetailController {
         titleField.setText(task.getTitle());
         descriptionArea.setText(task.getDescription() != null ? task.getDescription() : "");
         creationDateLabel.setText("Created: " + task.getFormattedCreationDate());
+        // The view is reused for every task, drop input left over from the previous one
+        newLabelField.clear();
+        newCommentArea.clear();
 
         refreshLabels();
         refreshComments();
@@ -147,30 +160,75 @@ public class TaskDetailController {
         }
     }
 
+    /**
+     * Shows the newest page of comments, scrolled to the latest one
+     */
     private void refreshComments() {
-        commentsContainer.getChildren().clear();
-        if (task.getComments() != null) {
-            for (Comment comment : task.getComments()) {
-                VBox commentBox = new VBox(5);
-                commentBox.setStyle("-fx-background-color: white; -fx-background-radius: 5; -fx-padding: 10; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 2, 0, 0, 1);");
-                
-                Label commentText = new Label(comment.getText());
-                commentText.setWrapText(true);
-                commentText.setMaxWidth(Double.MAX_VALUE);
-                
-                Label timestampLabel = new Label(comment.getFormattedTimestamp());
-                timestampLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #666;");
-                
-                commentBox.getChildren().addAll(commentText, timestampLabel);
-                commentsContainer.getChildren().add(commentBox);
+        List<Comment> comments = task.getComments() != null ? task.getComments() : List.of();
+        commentsLoadedFrom = Math.max(0, comments.size() - COMMENT_PAGE_SIZE);
+        commentsList.getItems().setAll(comments.subList(commentsLoadedFrom, comments.size()));
+        if (!comments.isEmpty()) {
+            commentsList.scrollTo(commentsList.getItems().size() - 1);
+        }
+    }
+
+    /**
+     * Prepends the previous page and keeps the comment that was at the top in place
+     */
+    private void loadOlderComments() {
+        loadingOlderComments = false;
+        if (task == null || commentsLoadedFrom == 0) return;
+        int from = Math.max(0, commentsLoadedFrom - COMMENT_PAGE_SIZE);
+        commentsList.getItems().addAll(0, task.getComments().subList(from, commentsLoadedFrom));
+        commentsList.scrollTo(commentsLoadedFrom - from);
+        commentsLoadedFrom = from;
+    }
+
+    /**
+     * One comment row. The list only creates cells for the visible comments and reuses them while scrolling.
+     */
+    private class CommentCell extends ListCell<Comment> {
+        private final VBox commentBox = new VBox(5);
+        private final Label commentText = new Label();
+        private final Label timestampLabel = new Label();
+
+        CommentCell() {
+            commentBox.setStyle("-fx-background-color: white; -fx-background-radius: 5; -fx-padding: 10; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 2, 0, 0, 1);");
+
+            commentText.setWrapText(true);
+            commentText.setMaxWidth(Double.MAX_VALUE);
+
+            timestampLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #666;");
+
+            commentBox.getChildren().addAll(commentText, timestampLabel);
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 10 0;");
+            // Wrap to the list width instead of widening it
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(Comment comment, boolean empty) {
+            super.updateItem(comment, empty);
+            setText(null);
+            if (empty || comment == null) {
+                setGraphic(null);
+                return;
+            }
+            commentText.setText(comment.getText());
+            timestampLabel.setText(comment.getFormattedTimestamp());
+            setGraphic(commentBox);
+
+            // The oldest loaded comment came into view: fetch the page before it
+            if (getIndex() == 0 && commentsLoadedFrom > 0 && !loadingOlderComments) {
+                loadingOlderComments = true;
+                Platform.runLater(TaskDetailController.this::loadOlderComments);
             }
         }
     }
 
     @FXML
     private void onAddLabelClicked() {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null || currentUser.getPermission() == User.Permission.READ_ONLY) {
+        if (!session.canModify(task)) {
             return; // Read-only users can't add labels
         }
         
@@ -184,8 +242,7 @@ public class TaskDetailController {
 
     @FXML
     private void onAddCommentClicked() {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null || currentUser.getPermission() == User.Permission.READ_ONLY) {
+        if (!session.canModify(task)) {
             return; // Read-only users can't add comments
         }
         
@@ -194,21 +251,22 @@ public class TaskDetailController {
             Comment comment = new Comment(commentText);
             task.getComments().add(comment);
             newCommentArea.clear();
-            refreshComments();
+            // Only the new comment is added to the list
+            commentsList.getItems().add(comment);
+            commentsList.scrollTo(commentsList.getItems().size() - 1);
         }
     }
 
     @FXML
     private void onSaveClicked() {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null || currentUser.getPermission() == User.Permission.READ_ONLY) {
+        if (!session.canModify(task)) {
             return; // Read-only users can't save
         }
         
         task.setTitle(titleField.getText());
         task.setDescription(descriptionArea.getText());
         
-        StorageService.saveTasks(allTasks);
+        repository.update(task);
         if (onTaskUpdated != null) {
             onTaskUpdated.run();
         }
@@ -217,8 +275,7 @@ public class TaskDetailController {
 
     @FXML
     private void onDeleteClicked() {
-        User currentUser = UserService.getCurrentUser();
-        if (currentUser == null || currentUser.getPermission() == User.Permission.READ_ONLY) {
+        if (!session.canModify(task)) {
             return; // Read-only users can't delete
         }
         
@@ -229,8 +286,7 @@ public class TaskDetailController {
         
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                allTasks.remove(task);
-                StorageService.saveTasks(allTasks);
+                repository.remove(task);
                 if (onTaskDeleted != null) {
                     onTaskDeleted.run();
                 }
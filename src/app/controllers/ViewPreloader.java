@@ -0,0 +1,84 @@
+package app.controllers;
+
+import app.services.StorageService;
+import javafx.fxml.FXMLLoader;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the views needed after login (and the task board itself) in the background while the
+ * login screen is open, so opening the board does not wait for FXML parsing or the task file.
+ *
+ * Preloaded views are handed out once; without a preload, {@link #load(String)} simply loads the view.
+ */
+public class ViewPreloader {
+
+    public static final String BOARD_VIEW = "/app/views/board.fxml";
+    public static final String TASK_DETAIL_VIEW = "/app/views/taskDetail.fxml";
+
+    private static final Map<String, CompletableFuture<FXMLLoader>> preloaded = new ConcurrentHashMap<>();
+
+    private ViewPreloader() {}
+
+    /**
+     * Starts reading the task board and parsing the board views on background threads
+     */
+    public static void preloadBoard() {
+        StorageService.getDefault().preloadTasks();
+        preload(BOARD_VIEW, TASK_DETAIL_VIEW);
+    }
+
+    /**
+     * Parses the given views on a background thread. Their controllers' initialize() runs there too,
+     * so it must not depend on the logged-in user or touch a live scene.
+     */
+    public static void preload(String... views) {
+        Map<String, CompletableFuture<FXMLLoader>> started = new LinkedHashMap<>();
+        for (String view : views) {
+            CompletableFuture<FXMLLoader> future = new CompletableFuture<>();
+            // A view that is already preloaded (and not taken yet) is left alone
+            if (preloaded.putIfAbsent(view, future) == null) {
+                started.put(view, future);
+            }
+        }
+        if (started.isEmpty()) return;
+
+        Thread preloader = new Thread(() -> {
+            for (Map.Entry<String, CompletableFuture<FXMLLoader>> entry : started.entrySet()) {
+                try {
+                    entry.getValue().complete(loadNow(entry.getKey()));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    entry.getValue().completeExceptionally(e);
+                }
+            }
+        }, "view-preloader");
+        preloader.setDaemon(true);
+        preloader.start();
+    }
+
+    /**
+     * Returns a loader whose view has been loaded: the preloaded one if available, otherwise a fresh load
+     */
+    public static FXMLLoader load(String view) throws IOException {
+        CompletableFuture<FXMLLoader> future = preloaded.remove(view);
+        if (future != null) {
+            try {
+                return future.join();
+            } catch (Exception e) {
+                // Preload failed, fall back to loading here
+            }
+        }
+        return loadNow(view);
+    }
+
+    private static FXMLLoader loadNow(String view) throws IOException {
+        FXMLLoader loader = new FXMLLoader(ViewPreloader.class.getResource(view));
+        loader.load();
+        return loader;
+    }
+}
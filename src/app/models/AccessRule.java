@@ -0,0 +1,68 @@
+package app.models;
+
+/**
+ * One access control entry: what a subject may do with one task or with every task carrying a label.
+ * Exactly one of taskId and label is set. The subject is a username, a permission level, or everyone
+ * when both are null.
+ */
+public class AccessRule {
+    public enum Access {
+        NONE,   // Card is hidden
+        VIEW,   // Card can be opened but not changed
+        EDIT    // Card can be changed, moved and deleted
+    }
+
+    private String taskId;
+    private String label;
+    private String username;
+    private User.Permission role;
+    private Access access;
+
+    public AccessRule() {}
+
+    public AccessRule(String taskId, String label, String username, User.Permission role, Access access) {
+        this.taskId = taskId;
+        this.label = label;
+        this.username = username;
+        this.role = role;
+        this.access = access;
+    }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public User.Permission getRole() { return role; }
+    public void setRole(User.Permission role) { this.role = role; }
+
+    public Access getAccess() { return access; }
+    public void setAccess(Access access) { this.access = access; }
+
+    /**
+     * Whether the rule's subject covers this user
+     */
+    public boolean appliesTo(User user) {
+        if (username != null) return username.equals(user.getUsername());
+        if (role != null) return role == user.getPermission();
+        return true;
+    }
+
+    /**
+     * 2 for a user rule, 1 for a role rule, 0 for everyone; the more specific rule wins on the same target
+     */
+    public int getSpecificity() {
+        return username != null ? 2 : role != null ? 1 : 0;
+    }
+
+    @Override
+    public String toString() {
+        String target = taskId != null ? "task " + taskId : "label " + label;
+        String subject = username != null ? "user " + username : role != null ? "role " + role : "everyone";
+        return target + ": " + subject + " -> " + access;
+    }
+}
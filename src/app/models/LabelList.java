@@ -0,0 +1,143 @@
+package app.models;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * The labels of a task, stored as LabelRegistry ids. Reads return the shared label strings.
+ * Ids below 64 are also kept in a bit mask, so membership tests are a single bit check.
+ *
+ * Gson fills and writes it like any other list, so the JSON format is a plain array of strings.
+ * Null and blank labels are rejected; readers of hand-edited files filter them out first.
+ */
+public class LabelList extends AbstractList<String> implements RandomAccess {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] ids = EMPTY;
+    private int size;
+    private long mask;
+
+    public LabelList() {
+    }
+
+    public LabelList(Collection<String> labels) {
+        if (labels instanceof LabelList) {
+            // Already registered, copy the ids as they are
+            LabelList other = (LabelList) labels;
+            ids = Arrays.copyOf(other.ids, other.size);
+            size = other.size;
+            mask = other.mask;
+            return;
+        }
+        ids = new int[labels.size()];
+        addAll(labels);
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index, size);
+        return LabelRegistry.nameOf(ids[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int index, String label) {
+        checkIndex(index, size + 1);
+        checkLabel(label);
+        int id = LabelRegistry.register(label);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+        if (id < Long.SIZE) {
+            mask |= 1L << id;
+        }
+        modCount++;
+    }
+
+    @Override
+    public String set(int index, String label) {
+        checkIndex(index, size);
+        checkLabel(label);
+        String previous = LabelRegistry.nameOf(ids[index]);
+        ids[index] = LabelRegistry.register(label);
+        updateMask();
+        return previous;
+    }
+
+    @Override
+    public String remove(int index) {
+        checkIndex(index, size);
+        String previous = LabelRegistry.nameOf(ids[index]);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        updateMask();
+        modCount++;
+        return previous;
+    }
+
+    /**
+     * Membership by registry id, without going through the strings
+     */
+    public boolean hasLabel(int id) {
+        if (id < 0) return false;
+        if (id < Long.SIZE) return (mask & (1L << id)) != 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether any of the labels with ids below 64 set in the mask is on the list
+     */
+    public boolean hasAnyLabel(long idMask) {
+        return (mask & idMask) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String && hasLabel(LabelRegistry.idOf((String) o));
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof String)) return -1;
+        int id = LabelRegistry.idOf((String) o);
+        if (!hasLabel(id)) return -1;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private void updateMask() {
+        mask = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] < Long.SIZE) {
+                mask |= 1L << ids[i];
+            }
+        }
+    }
+
+    private static void checkLabel(String label) {
+        if (label == null || label.isBlank()) {
+            throw new IllegalArgumentException("Blank label");
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+}
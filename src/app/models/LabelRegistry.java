@@ -0,0 +1,58 @@
+package app.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide label dictionary. Every distinct label string is stored once and numbered,
+ * so tasks can keep small integer ids (see LabelList) instead of their own copies of the strings.
+ * Ids are never reused or removed; a board only ever has a few dozen distinct labels.
+ */
+public final class LabelRegistry {
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[16];
+    private static int count = 0;
+
+    private LabelRegistry() {}
+
+    /**
+     * Id of the label, registering it on first use
+     */
+    public static int register(String label) {
+        Integer id = ids.get(label);
+        if (id != null) return id;
+        synchronized (LabelRegistry.class) {
+            id = ids.get(label);
+            if (id != null) return id;
+            String[] current = names;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+            }
+            current[count] = label;
+            names = current;
+            ids.put(label, count);
+            return count++;
+        }
+    }
+
+    /**
+     * Id of an already registered label, or -1
+     */
+    public static int idOf(String label) {
+        Integer id = ids.get(label);
+        return id != null ? id : -1;
+    }
+
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * The canonical instance of the label string
+     */
+    public static String intern(String label) {
+        return nameOf(register(label));
+    }
+}
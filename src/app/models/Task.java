@@ -29,17 +29,29 @@ public class Task {
         public String getHex() {
             return hex;
         }
+
+        /**
+         * Style class of this colour in board.css, e.g. "color-light-blue"
+         */
+        public String getStyleClass() {
+            return "color-" + name().toLowerCase().replace('_', '-');
+        }
     }
 
     private String id;
     private String title;
     private String description;
     private String issueDescription;
-    private List<String> labels;
+    // Label ids, see LabelRegistry
+    private LabelList labels;
     private BackgroundColor backgroundColor;
     private LocalDateTime creationDate;
     private List<Comment> comments;
     private Status status;
+    // Sort key within the status column (see RankKeys), so moving a card only changes this card
+    private String rank;
+    // Comments and the issue description are stored per task and only read when the card is opened
+    private transient boolean detailsLoaded = true;
 
     public Task() {
         // Generate ID if not set (for JSON deserialization)
@@ -47,7 +59,7 @@ public class Task {
             this.id = UUID.randomUUID().toString();
         }
         if (this.labels == null) {
-            this.labels = new ArrayList<>();
+            this.labels = new LabelList();
         }
         if (this.comments == null) {
             this.comments = new ArrayList<>();
@@ -65,13 +77,34 @@ public class Task {
         this.title = title;
         this.description = description;
         this.issueDescription = "";
-        this.labels = new ArrayList<>();
+        this.labels = new LabelList();
         this.comments = new ArrayList<>();
         this.backgroundColor = BackgroundColor.WHITE;
         this.creationDate = LocalDateTime.now();
         this.status = status;
     }
 
+    private Task(Task other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.issueDescription = other.issueDescription;
+        this.labels = other.labels != null ? new LabelList(other.labels) : null;
+        this.backgroundColor = other.backgroundColor;
+        this.creationDate = other.creationDate;
+        this.comments = other.comments != null ? new ArrayList<>(other.comments) : null;
+        this.status = other.status;
+        this.rank = other.rank;
+        this.detailsLoaded = other.detailsLoaded;
+    }
+
+    /**
+     * Copy with its own label and comment lists, so another thread can read it while this one is edited
+     */
+    public Task copy() {
+        return new Task(this);
+    }
+
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
     
@@ -85,7 +118,9 @@ public class Task {
     public void setIssueDescription(String issueDescription) { this.issueDescription = issueDescription; }
     
     public List<String> getLabels() { return labels; }
-    public void setLabels(List<String> labels) { this.labels = labels; }
+    public void setLabels(List<String> labels) {
+        this.labels = labels == null || labels instanceof LabelList ? (LabelList) labels : new LabelList(labels);
+    }
     
     public BackgroundColor getBackgroundColor() { return backgroundColor; }
     public void setBackgroundColor(BackgroundColor backgroundColor) { this.backgroundColor = backgroundColor; }
@@ -103,4 +138,10 @@ public class Task {
     
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
+
+    public String getRank() { return rank; }
+    public void setRank(String rank) { this.rank = rank; }
+
+    public boolean isDetailsLoaded() { return detailsLoaded; }
+    public void setDetailsLoaded(boolean detailsLoaded) { this.detailsLoaded = detailsLoaded; }
 }
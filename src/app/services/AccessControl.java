@@ -0,0 +1,272 @@
+package app.services;
+
+import app.models.AccessRule;
+import app.models.AccessRule.Access;
+import app.models.LabelList;
+import app.models.LabelRegistry;
+import app.models.Task;
+import app.models.User;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Task- and label-level access rules, stored in acl.json.
+ *
+ * A user's access to a task is decided in this order:
+ * <ol>
+ *   <li>ADMIN can always edit; rules do not apply.</li>
+ *   <li>A rule on the task itself, the most specific subject (user, then role, then everyone) winning.</li>
+ *   <li>Rules on the task's labels, again the most specific one per label. NONE on any label hides the card,
+ *       otherwise EDIT on any label allows editing, otherwise VIEW on any label makes it read-only.</li>
+ *   <li>The permission level: PERMITTED can edit, READ_ONLY can view.</li>
+ * </ol>
+ * The rules are compiled once per user (shared by that user's sessions) into a task id map and label id
+ * bit masks, so a card check is a hash lookup and a few mask tests. The compiled decisions are rebuilt
+ * when the rules or the user's permission change ({@link #invalidate()}).
+ */
+public class AccessControl {
+
+    private static final String FILE = "acl.json";
+    private static final Gson gson = new Gson();
+
+    // Guarded by AccessControl.class
+    private static List<AccessRule> rules;
+    private static volatile long version;
+    // Compiled decisions per username, for every session in the process
+    private static final Map<String, Decisions> cached = new ConcurrentHashMap<>();
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "acl-storage-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // A write is queued and has not copied the rules yet; guarded by AccessControl.class
+    private static boolean writePending;
+
+    private AccessControl() {}
+
+    public static boolean canView(User user, Task task) {
+        return access(user, task) != Access.NONE;
+    }
+
+    /**
+     * Same check by id and labels, for boards whose tasks are not kept in memory (see TaskRepository)
+     */
+    public static boolean canView(User user, String taskId, List<String> labels) {
+        return access(user, taskId, labels) != Access.NONE;
+    }
+
+    public static boolean canModify(User user, Task task) {
+        return access(user, task) == Access.EDIT;
+    }
+
+    /**
+     * Creating a card does not depend on rules, only on the permission level
+     */
+    public static boolean canCreate(User user) {
+        return user != null && user.getPermission() != User.Permission.READ_ONLY;
+    }
+
+    public static Access access(User user, Task task) {
+        return access(user, task.getId(), task.getLabels());
+    }
+
+    public static Access access(User user, String taskId, List<String> labels) {
+        if (user == null) return Access.NONE;
+        if (user.getPermission() == User.Permission.ADMIN) return Access.EDIT;
+        return decisionsFor(user).access(taskId, labels);
+    }
+
+    /**
+     * Every rule, in the order they were added
+     */
+    public static synchronized List<AccessRule> getRules() {
+        return new ArrayList<>(loadRules());
+    }
+
+    public static synchronized boolean addRule(AccessRule rule) {
+        if ((rule.getTaskId() == null) == (rule.getLabel() == null) || rule.getAccess() == null) {
+            return false;
+        }
+        loadRules().add(rule);
+        invalidate();
+        saveRulesAsync();
+        return true;
+    }
+
+    public static synchronized boolean removeRule(AccessRule rule) {
+        if (!loadRules().remove(rule)) return false;
+        invalidate();
+        saveRulesAsync();
+        return true;
+    }
+
+    /**
+     * Drops the compiled decisions; called when rules or a user's permission change
+     */
+    public static synchronized void invalidate() {
+        version++;
+        cached.clear();
+    }
+
+    private static Decisions decisionsFor(User user) {
+        Decisions decisions = cached.get(user.getUsername());
+        if (decisions != null && decisions.isFor(user)) {
+            return decisions;
+        }
+        synchronized (AccessControl.class) {
+            decisions = new Decisions(user, loadRules(), version);
+            cached.put(user.getUsername(), decisions);
+            return decisions;
+        }
+    }
+
+    private static List<AccessRule> loadRules() {
+        if (rules != null) return rules;
+        rules = new ArrayList<>();
+        if (!Files.exists(Path.of(FILE))) return rules;
+        try (FileReader reader = new FileReader(FILE)) {
+            List<AccessRule> loaded = gson.fromJson(reader, new TypeToken<List<AccessRule>>(){}.getType());
+            if (loaded != null) {
+                rules.addAll(loaded);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return rules;
+    }
+
+    /**
+     * Queues a write of the rules on the writer thread; changes made before it runs are written together.
+     * Callers hold the AccessControl lock.
+     */
+    private static void saveRulesAsync() {
+        if (!writePending) {
+            writePending = true;
+            writer.execute(AccessControl::saveRules);
+        }
+    }
+
+    /**
+     * Copies the rules, writes them into a temp file and renames it over acl.json
+     */
+    private static void saveRules() {
+        String json;
+        synchronized (AccessControl.class) {
+            writePending = false;
+            json = gson.toJson(rules);
+        }
+        Path target = Path.of(FILE);
+        Path temp = Path.of(FILE + ".tmp");
+        try {
+            try (FileWriter out = new FileWriter(temp.toFile())) {
+                out.write(json);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Blocks until queued rule writes have reached the disk (window close)
+     */
+    public static void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * The rules that apply to one user, resolved per target
+     */
+    private static final class Decisions {
+        private final String username;
+        private final User.Permission permission;
+        private final long version;
+        private final Access defaultAccess;
+        private final Map<String, Access> taskAccess = new HashMap<>();
+        // Label ids below 64 with a NONE, VIEW or EDIT rule for this user
+        private long noneMask;
+        private long viewMask;
+        private long editMask;
+        // Rules on labels with higher ids, by label id
+        private final Map<Integer, Access> highLabels = new HashMap<>();
+        private final boolean hasLabelRules;
+
+        Decisions(User user, List<AccessRule> rules, long version) {
+            this.username = user.getUsername();
+            this.permission = user.getPermission();
+            this.version = version;
+            this.defaultAccess = permission == User.Permission.READ_ONLY ? Access.VIEW : Access.EDIT;
+
+            Map<String, AccessRule> byTask = new HashMap<>();
+            Map<String, AccessRule> byLabel = new HashMap<>();
+            for (AccessRule rule : rules) {
+                if (!rule.appliesTo(user)) continue;
+                Map<String, AccessRule> targets = rule.getTaskId() != null ? byTask : byLabel;
+                String target = rule.getTaskId() != null ? rule.getTaskId() : rule.getLabel();
+                // Later rules replace earlier ones of the same specificity
+                targets.merge(target, rule, (previous, next) ->
+                        next.getSpecificity() >= previous.getSpecificity() ? next : previous);
+            }
+            for (AccessRule rule : byTask.values()) {
+                taskAccess.put(rule.getTaskId(), rule.getAccess());
+            }
+            for (AccessRule rule : byLabel.values()) {
+                int id = LabelRegistry.register(rule.getLabel());
+                if (id >= Long.SIZE) {
+                    highLabels.put(id, rule.getAccess());
+                } else if (rule.getAccess() == Access.NONE) {
+                    noneMask |= 1L << id;
+                } else if (rule.getAccess() == Access.VIEW) {
+                    viewMask |= 1L << id;
+                } else {
+                    editMask |= 1L << id;
+                }
+            }
+            hasLabelRules = !byLabel.isEmpty();
+        }
+
+        boolean isFor(User user) {
+            return version == AccessControl.version && permission == user.getPermission()
+                    && username.equals(user.getUsername());
+        }
+
+        Access access(String taskId, List<String> taskLabels) {
+            if (!taskAccess.isEmpty()) {
+                Access access = taskAccess.get(taskId);
+                if (access != null) return access;
+            }
+            if (!hasLabelRules || taskLabels == null || taskLabels.isEmpty()) {
+                return defaultAccess;
+            }
+            LabelList labels = taskLabels instanceof LabelList ? (LabelList) taskLabels : new LabelList(taskLabels);
+            if (labels.hasAnyLabel(noneMask) || hasHighLabel(labels, Access.NONE)) return Access.NONE;
+            if (labels.hasAnyLabel(editMask) || hasHighLabel(labels, Access.EDIT)) return Access.EDIT;
+            if (labels.hasAnyLabel(viewMask) || hasHighLabel(labels, Access.VIEW)) return Access.VIEW;
+            return defaultAccess;
+        }
+
+        private boolean hasHighLabel(LabelList labels, Access access) {
+            for (Map.Entry<Integer, Access> entry : highLabels.entrySet()) {
+                if (entry.getValue() == access && labels.hasLabel(entry.getKey())) return true;
+            }
+            return false;
+        }
+    }
+}
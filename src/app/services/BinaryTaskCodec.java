@@ -0,0 +1,310 @@
+package app.services;
+
+import app.models.Comment;
+import app.models.LabelList;
+import app.models.LabelRegistry;
+import app.models.Task;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary snapshot format for the task store (tasks.bin).
+ *
+ * Layout: magic, version, label dictionary, task count, then one length-prefixed record per task.
+ * Comments and issue descriptions are not part of the snapshot (see StorageService.loadTaskDetails).
+ * Enums are stored as ordinals, timestamps as epoch seconds + nanos, UUIDs as two longs
+ * and labels as indexes into the dictionary (interned through LabelRegistry when read).
+ */
+public class BinaryTaskCodec {
+
+    static final int MAGIC = 0x544D4231; // "TMB1"
+    static final int VERSION = 1;
+
+    private static final int ID_UUID = 0;
+    private static final int ID_STRING = 1;
+
+    private BinaryTaskCodec() {}
+
+    public static void write(List<Task> tasks, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+
+        // Label dictionary: every distinct label is written once
+        Map<String, Integer> labelIds = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            addLabels(labelIds, task);
+        }
+
+        writeHeader(data, labelIds, tasks.size());
+        ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+        for (Task task : tasks) {
+            writeRecord(data, task, labelIds, scratch);
+        }
+        data.flush();
+    }
+
+    static void addLabels(Map<String, Integer> labelIds, Task task) {
+        if (task.getLabels() == null) return;
+        for (String label : task.getLabels()) {
+            labelIds.putIfAbsent(label, labelIds.size());
+        }
+    }
+
+    static void writeHeader(DataOutputStream data, Map<String, Integer> labelIds, int taskCount) throws IOException {
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeVarInt(data, labelIds.size());
+        for (String label : labelIds.keySet()) {
+            writeString(data, label);
+        }
+        data.writeInt(taskCount);
+    }
+
+    /**
+     * Writes one length-prefixed task record, using {@code scratch} to measure it
+     */
+    static void writeRecord(DataOutputStream data, Task task, Map<String, Integer> labelIds,
+                            ByteArrayOutputStream scratch) throws IOException {
+        scratch.reset();
+        DataOutputStream record = new DataOutputStream(scratch);
+        writeTask(record, task, labelIds);
+        record.flush();
+        data.writeInt(scratch.size());
+        scratch.writeTo(data);
+    }
+
+    /**
+     * Reads a snapshot, handing every {@code batchSize} decoded tasks to {@code onBatch}
+     */
+    public static List<Task> read(InputStream in, int batchSize, Consumer<List<Task>> onBatch) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        String[] labels = readHeader(data);
+        int count = data.readInt();
+
+        List<Task> tasks = new ArrayList<>(count);
+        List<Task> batch = new ArrayList<>(Math.min(batchSize, count));
+        byte[] buffer = new byte[256];
+        for (int i = 0; i < count; i++) {
+            int length = data.readInt();
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            data.readFully(buffer, 0, length);
+            Task task = decodeTask(ByteBuffer.wrap(buffer, 0, length), labels);
+            tasks.add(task);
+            batch.add(task);
+            if (batch.size() >= batchSize) {
+                onBatch.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            onBatch.accept(batch);
+        }
+        return tasks;
+    }
+
+    public static List<Task> read(InputStream in) throws IOException {
+        return read(in, Integer.MAX_VALUE, batch -> { });
+    }
+
+    /**
+     * Reads magic, version and the label dictionary
+     */
+    static String[] readHeader(DataInput data) throws IOException {
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a task snapshot");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported task snapshot version: " + version);
+        }
+        String[] labels = new String[readVarInt(data)];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = LabelRegistry.intern(readString(data));
+        }
+        return labels;
+    }
+
+    private static void writeTask(DataOutputStream out, Task task, Map<String, Integer> labelIds) throws IOException {
+        writeId(out, task.getId());
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+        // Comment bodies and issue descriptions are stored in task-details/, the snapshot keeps empty slots
+        // for them (files written before that still carry them and are read as before)
+        writeString(out, "");
+        out.writeByte(task.getStatus() != null ? task.getStatus().ordinal() : -1);
+        out.writeByte(task.getBackgroundColor() != null ? task.getBackgroundColor().ordinal() : -1);
+        writeTimestamp(out, task.getCreationDate());
+
+        List<String> labels = task.getLabels() != null ? task.getLabels() : List.of();
+        writeVarInt(out, labels.size());
+        for (String label : labels) {
+            writeVarInt(out, labelIds.get(label));
+        }
+
+        writeVarInt(out, 0);
+        // Appended last, so records written before ranks existed still decode
+        writeString(out, task.getRank());
+    }
+
+    static Task decodeTask(ByteBuffer buf, String[] labels) {
+        Task task = new Task();
+        task.setId(readId(buf));
+        task.setTitle(readString(buf));
+        task.setDescription(readString(buf));
+        task.setIssueDescription(readString(buf));
+        int status = buf.get();
+        task.setStatus(status >= 0 ? Task.Status.values()[status] : null);
+        int color = buf.get();
+        task.setBackgroundColor(color >= 0 ? Task.BackgroundColor.values()[color] : null);
+        task.setCreationDate(readTimestamp(buf));
+
+        int labelCount = readVarInt(buf);
+        LabelList taskLabels = new LabelList();
+        for (int i = 0; i < labelCount; i++) {
+            String label = labels[readVarInt(buf)];
+            // Files written while blank labels were still accepted
+            if (label != null && !label.isBlank()) {
+                taskLabels.add(label);
+            }
+        }
+        task.setLabels(taskLabels);
+
+        int commentCount = readVarInt(buf);
+        List<Comment> comments = new ArrayList<>(commentCount);
+        for (int i = 0; i < commentCount; i++) {
+            Comment comment = new Comment();
+            comment.setId(readId(buf));
+            comment.setText(readString(buf));
+            comment.setTimestamp(readTimestamp(buf));
+            comments.add(comment);
+        }
+        task.setComments(comments);
+        if (buf.hasRemaining()) {
+            task.setRank(readString(buf));
+        }
+        StorageService.applyDefaults(task);
+        return task;
+    }
+
+    // --- field encoders ---
+
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        UUID uuid = parseUuid(id);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_STRING);
+            writeString(out, id);
+        }
+    }
+
+    static String readId(ByteBuffer buf) {
+        if (buf.get() == ID_UUID) {
+            return new UUID(buf.getLong(), buf.getLong()).toString();
+        }
+        return readString(buf);
+    }
+
+    private static UUID parseUuid(String id) {
+        if (id == null || id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            // Only use the compact form when it round-trips to the exact same string
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime time) throws IOException {
+        if (time == null) {
+            out.writeLong(Long.MIN_VALUE);
+            return;
+        }
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTimestamp(ByteBuffer buf) {
+        long seconds = buf.getLong();
+        if (seconds == Long.MIN_VALUE) return null;
+        return LocalDateTime.ofEpochSecond(seconds, buf.getInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Strings are stored as varint (byte length + 1) followed by UTF-8 bytes; 0 means null
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buf) {
+        int length = readVarInt(buf) - 1;
+        if (length < 0) return null;
+        String value;
+        if (buf.hasArray()) {
+            value = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+            buf.position(buf.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buf.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(ByteBuffer buf) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,66 @@
+package app.services;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Saved board filters (TaskQuery texts) per user, stored in filters.json as username -> (name -> query)
+ */
+public class FilterService {
+
+    private static final String FILE = "filters.json";
+    private static final Gson gson = new Gson();
+
+    /**
+     * The user's saved filters in the order they were saved
+     */
+    public static Map<String, String> getSavedFilters(String username) {
+        Map<String, String> filters = loadFilters().get(username);
+        return filters != null ? filters : new LinkedHashMap<>();
+    }
+
+    public static boolean saveFilter(String username, String name, String query) {
+        Map<String, Map<String, String>> all = loadFilters();
+        all.computeIfAbsent(username, u -> new LinkedHashMap<>()).put(name, query);
+        return saveFilters(all);
+    }
+
+    public static boolean deleteFilter(String username, String name) {
+        Map<String, Map<String, String>> all = loadFilters();
+        Map<String, String> filters = all.get(username);
+        if (filters == null || filters.remove(name) == null) {
+            return false;
+        }
+        return saveFilters(all);
+    }
+
+    private static Map<String, Map<String, String>> loadFilters() {
+        if (!Files.exists(Path.of(FILE))) {
+            return new LinkedHashMap<>();
+        }
+        try (FileReader reader = new FileReader(FILE)) {
+            Map<String, Map<String, String>> all = gson.fromJson(reader,
+                    new TypeToken<LinkedHashMap<String, LinkedHashMap<String, String>>>(){}.getType());
+            return all != null ? all : new LinkedHashMap<>();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private static boolean saveFilters(Map<String, Map<String, String>> all) {
+        try (FileWriter writer = new FileWriter(FILE)) {
+            gson.toJson(all, writer);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
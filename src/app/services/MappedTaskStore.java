@@ -0,0 +1,366 @@
+package app.services;
+
+import app.models.LabelRegistry;
+import app.models.Task;
+
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Task list backed by a memory-mapped binary snapshot (tasks.N.bin, see StorageService).
+ *
+ * Only an offset index (id, record position) is kept on the heap. Tasks are decoded from the mapping
+ * when they are accessed and held through soft references, so untouched records stay paged by the OS.
+ * Tasks that were added or modified since the snapshot are pinned on the heap until the next one.
+ *
+ * A new snapshot is written as a new file, never over the mapped one. The copy it was written from hands
+ * the new mapping back ({@link #publish(Path)}), and this store switches to it on its next access, on its
+ * own thread: tasks unchanged since the copy are read from the new file and unpinned.
+ */
+public class MappedTaskStore extends AbstractList<Task> implements RandomAccess {
+
+    private static final class Slot {
+        final String id;
+        int offset;         // start of the record body in the mapping, -1 for tasks created after it
+        int length;
+        // Store-wide modification number, so a snapshot can tell whether the task changed after it was taken
+        long version;
+        Task pinned;
+        SoftReference<Task> cached;
+
+        Slot(String id, int offset, int length) {
+            this.id = id;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A snapshot file as written from a copy: its mapping, its label dictionary and where each copied record went
+     */
+    private static final class Generation {
+        final ByteBuffer mapping;
+        final String[] labels;
+        final List<Slot> slots;
+
+        Generation(ByteBuffer mapping, String[] labels, List<Slot> slots) {
+            this.mapping = mapping;
+            this.labels = labels;
+            this.slots = slots;
+        }
+    }
+
+    private ByteBuffer mapping;
+    private String[] labels;
+    private final List<Slot> slots;
+    private final Map<String, Slot> byId;
+    private long modifications;
+    // The store a writer copy was taken from, null for the store the board works on
+    private final MappedTaskStore origin;
+    // Label dictionary of the file written from this copy (see writeTo)
+    private String[] writtenLabels;
+    // Newest snapshot written from a copy, switched to on this store's thread
+    private final AtomicReference<Generation> nextGeneration = new AtomicReference<>();
+
+    private MappedTaskStore(ByteBuffer mapping, String[] labels, List<Slot> slots, MappedTaskStore origin) {
+        this.mapping = mapping;
+        this.labels = labels;
+        this.slots = slots;
+        this.origin = origin;
+        this.byId = new HashMap<>(slots.size() * 2);
+        for (Slot slot : slots) {
+            byId.put(slot.id, slot);
+        }
+    }
+
+    public static MappedTaskStore empty() {
+        return new MappedTaskStore(null, new String[0], new ArrayList<>(), null);
+    }
+
+    /**
+     * Maps the snapshot read-only and builds the offset index by walking the record headers
+     */
+    public static MappedTaskStore open(Path file) throws IOException {
+        ByteBuffer buf = map(file);
+        String[] labels = readLabels(buf, file);
+
+        int count = buf.getInt();
+        List<Slot> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = buf.getInt();
+            int offset = buf.position();
+            // The id is the first field of every record
+            String id = BinaryTaskCodec.readId(buf);
+            slots.add(new Slot(id, offset, length));
+            buf.position(offset + length);
+        }
+        return new MappedTaskStore(buf.rewind(), labels, slots, null);
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        MappedByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // A single mapping is limited to 2 GB, which is far beyond any board we store
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return mapping;
+    }
+
+    /**
+     * Checks the header and reads the label dictionary, leaving the buffer at the task count
+     */
+    private static String[] readLabels(ByteBuffer buf, Path file) throws IOException {
+        if (buf.getInt() != BinaryTaskCodec.MAGIC || (buf.get() & 0xFF) != BinaryTaskCodec.VERSION) {
+            throw new IOException("Not a supported task snapshot: " + file);
+        }
+        String[] labels = new String[BinaryTaskCodec.readVarInt(buf)];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = LabelRegistry.intern(BinaryTaskCodec.readString(buf));
+        }
+        return labels;
+    }
+
+    /**
+     * Switches to the newest snapshot written from a copy, if there is one. Slots whose version is still the
+     * one the copy saw are served from the new file and unpinned; slots changed since stay pinned.
+     */
+    private void switchGeneration() {
+        Generation next = nextGeneration.getAndSet(null);
+        if (next == null) return;
+        for (Slot written : next.slots) {
+            Slot slot = byId.get(written.id);
+            if (slot == null) continue;
+            slot.offset = written.offset;
+            slot.length = written.length;
+            if (slot.version == written.version && slot.pinned != null) {
+                slot.cached = new SoftReference<>(slot.pinned);
+                slot.pinned = null;
+            }
+        }
+        mapping = next.mapping;
+        labels = next.labels;
+    }
+
+    private Task materialize(Slot slot) {
+        if (slot.pinned != null) return slot.pinned;
+        Task task = slot.cached != null ? slot.cached.get() : null;
+        if (task == null) {
+            task = decode(slot);
+            slot.cached = new SoftReference<>(task);
+        }
+        return task;
+    }
+
+    private Task decode(Slot slot) {
+        ByteBuffer record = mapping.duplicate();
+        record.position(slot.offset).limit(slot.offset + slot.length);
+        return BinaryTaskCodec.decodeTask(record.slice(), labels);
+    }
+
+    private Slot newSlot(Task task) {
+        Slot slot = new Slot(task.getId(), -1, 0);
+        slot.pinned = task;
+        slot.version = ++modifications;
+        return slot;
+    }
+
+    /**
+     * Keeps a modified task on the heap so the change survives until the next snapshot is written
+     */
+    public void pin(Task task) {
+        replace(task);
+    }
+
+    /**
+     * Puts the given task in place of the one with the same id, keeping its position, and pins it.
+     * False if there is no task with that id.
+     */
+    public boolean replace(Task task) {
+        switchGeneration();
+        Slot slot = byId.get(task.getId());
+        if (slot == null) return false;
+        slot.pinned = task;
+        slot.cached = null;
+        slot.version = ++modifications;
+        return true;
+    }
+
+    /**
+     * The task at the index without keeping it: pinned and cached tasks are returned as they are, others
+     * are decoded and left to the garbage collector (for building indexes over the whole store)
+     */
+    public Task peek(int index) {
+        switchGeneration();
+        Slot slot = slots.get(index);
+        if (slot.pinned != null) return slot.pinned;
+        Task task = slot.cached != null ? slot.cached.get() : null;
+        return task != null ? task : decode(slot);
+    }
+
+    public Task getById(String id) {
+        switchGeneration();
+        Slot slot = byId.get(id);
+        return slot != null ? materialize(slot) : null;
+    }
+
+    @Override
+    public Task get(int index) {
+        switchGeneration();
+        return materialize(slots.get(index));
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        switchGeneration();
+        Slot previous = slots.set(index, newSlot(task));
+        byId.remove(previous.id);
+        byId.put(task.getId(), slots.get(index));
+        return materialize(previous);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        switchGeneration();
+        Slot slot = newSlot(task);
+        slots.add(index, slot);
+        byId.put(slot.id, slot);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        switchGeneration();
+        Slot slot = slots.remove(index);
+        byId.remove(slot.id);
+        modCount++;
+        return materialize(slot);
+    }
+
+    /**
+     * Removes the tasks with the given ids in one pass over the index, without decoding them
+     */
+    public void removeIds(Set<String> ids) {
+        if (ids.isEmpty()) return;
+        switchGeneration();
+        if (slots.removeIf(slot -> ids.contains(slot.id))) {
+            byId.keySet().removeAll(ids);
+            modCount++;
+        }
+    }
+
+    /**
+     * Removes the task at the index by moving the last one into its place, without decoding either.
+     * Returns the id of the task now at the index, or null if the removed one was the last.
+     */
+    public String removeSwapping(int index) {
+        switchGeneration();
+        Slot last = slots.remove(slots.size() - 1);
+        modCount++;
+        if (index == slots.size()) {
+            byId.remove(last.id);
+            return null;
+        }
+        byId.remove(slots.set(index, last).id);
+        return last.id;
+    }
+
+    /**
+     * Looks tasks up by id through the index, without decoding the records in between
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Task)) return -1;
+        Slot slot = byId.get(((Task) o).getId());
+        return slot != null ? slots.indexOf(slot) : -1;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Task && byId.containsKey(((Task) o).getId());
+    }
+
+    /**
+     * Copy of the current order sharing the mapping, used to hand a snapshot to the writer thread.
+     * Modified tasks are copied too, since they keep being edited in place after the snapshot is taken.
+     */
+    public MappedTaskStore copy() {
+        switchGeneration();
+        MappedTaskStore copy = new MappedTaskStore(mapping, labels, new ArrayList<>(slots.size()), this);
+        for (Slot slot : slots) {
+            Slot captured = new Slot(slot.id, slot.offset, slot.length);
+            captured.version = slot.version;
+            captured.pinned = slot.pinned != null ? slot.pinned.copy() : null;
+            copy.slots.add(captured);
+            copy.byId.put(captured.id, captured);
+        }
+        return copy;
+    }
+
+    /**
+     * Writes a binary snapshot. The old label dictionary is kept as the prefix of the new one,
+     * so untouched records are copied byte for byte instead of being decoded and re-encoded.
+     * Where each record went is noted in this copy's index, for {@link #publish(Path)}.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Map<String, Integer> labelIds = new LinkedHashMap<>();
+        for (String label : labels) {
+            labelIds.putIfAbsent(label, labelIds.size());
+        }
+        for (Slot slot : slots) {
+            if (slot.pinned != null) {
+                BinaryTaskCodec.addLabels(labelIds, slot.pinned);
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        BinaryTaskCodec.writeHeader(data, labelIds, slots.size());
+        ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+        byte[] raw = new byte[256];
+        for (Slot slot : slots) {
+            int start = data.size();
+            if (slot.pinned != null) {
+                BinaryTaskCodec.writeRecord(data, slot.pinned, labelIds, scratch);
+            } else {
+                if (raw.length < slot.length) {
+                    raw = new byte[Math.max(slot.length, raw.length * 2)];
+                }
+                mapping.duplicate().position(slot.offset).get(raw, 0, slot.length);
+                data.writeInt(slot.length);
+                data.write(raw, 0, slot.length);
+            }
+            // Record body follows its length
+            slot.offset = start + Integer.BYTES;
+            slot.length = data.size() - slot.offset;
+        }
+        data.flush();
+        writtenLabels = labelIds.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Maps the file this copy was written to (it must not change any more) and hands it to the store the
+     * copy was taken from, which switches to it on its next access
+     */
+    public void publish(Path file) throws IOException {
+        if (origin == null || writtenLabels == null) return;
+        origin.nextGeneration.set(new Generation(map(file), writtenLabels, slots));
+    }
+}
@@ -0,0 +1,130 @@
+package app.services;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Password hashing for users.json.
+ *
+ * New hashes are salted PBKDF2-HMAC-SHA256, stored as {@code pbkdf2$<iterations>$<salt hex>$<hash hex>}.
+ * The iteration count is the cost: it defaults to {@link #DEFAULT_ITERATIONS} and can be tuned with
+ * {@code -Dtaskmanager.pbkdf2.iterations=N} (see bench/app/bench/PasswordHashBenchmark.java).
+ * Hashes written before that are plain unsalted SHA-256 hex; they still verify and should be rehashed
+ * after a successful login ({@link #needsRehash}).
+ */
+public class PasswordHasher {
+
+    public static final int DEFAULT_ITERATIONS = 120_000;
+    public static final int ITERATIONS = Integer.getInteger("taskmanager.pbkdf2.iterations", DEFAULT_ITERATIONS);
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final SecureRandom random = new SecureRandom();
+
+    private PasswordHasher() {}
+
+    public static String hash(String password) {
+        return hash(password, ITERATIONS);
+    }
+
+    public static String hash(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations);
+        return PREFIX + iterations + '$' + toHex(salt) + '$' + toHex(hash);
+    }
+
+    /**
+     * Checks a password against a stored hash of either format. The final comparison takes the same time
+     * wherever the first differing byte is. False for a malformed stored hash.
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) return false;
+        if (!stored.startsWith(PREFIX)) {
+            byte[] expected = fromHex(stored);
+            return expected != null && MessageDigest.isEqual(expected, legacyDigest(password));
+        }
+        int iterationsEnd = stored.indexOf('$', PREFIX.length());
+        int saltEnd = iterationsEnd < 0 ? -1 : stored.indexOf('$', iterationsEnd + 1);
+        if (saltEnd < 0) return false;
+        int iterations;
+        try {
+            iterations = Integer.parseInt(stored.substring(PREFIX.length(), iterationsEnd));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        byte[] salt = fromHex(stored.substring(iterationsEnd + 1, saltEnd));
+        byte[] expected = fromHex(stored.substring(saltEnd + 1));
+        if (iterations <= 0 || salt == null || expected == null || expected.length == 0) return false;
+        return MessageDigest.isEqual(expected, derive(password, salt, iterations));
+    }
+
+    /**
+     * True for legacy hashes and for hashes made with a lower cost than the current setting
+     */
+    public static boolean needsRehash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) return true;
+        int iterationsEnd = stored.indexOf('$', PREFIX.length());
+        try {
+            return iterationsEnd < 0 || Integer.parseInt(stored.substring(PREFIX.length(), iterationsEnd)) < ITERATIONS;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Unsalted SHA-256 hex, the format users.json used before PBKDF2
+     */
+    public static String legacyHash(String password) {
+        return toHex(legacyDigest(password));
+    }
+
+    private static byte[] legacyDigest(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Null if the text is not an even-length hex string
+     */
+    static byte[] fromHex(String hex) {
+        if ((hex.length() & 1) != 0) return null;
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) return null;
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+}
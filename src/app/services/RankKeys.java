@@ -0,0 +1,125 @@
+package app.services;
+
+/**
+ * Fractional, lexicographically sortable order keys for cards.
+ *
+ * A key is read as the base-36 fraction 0.k1k2k3..., and never ends with '0', so a key strictly
+ * between any two different keys always exists. Moving a card only assigns it a new key between
+ * its new neighbours; other cards keep theirs.
+ *
+ * At either end of a column the key is stepped from its neighbour's last digit instead of bisected
+ * towards 0 or 1, so appending or prepending grows keys by one digit per ~35 cards, not per ~5.
+ */
+public class RankKeys {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    // Columns are re-spaced once a key grows past this length (many inserts at the same spot)
+    static final int MAX_LENGTH = 16;
+
+    private RankKeys() {}
+
+    /**
+     * Key strictly between {@code before} and {@code after}; null means the start/end of the column
+     */
+    public static String between(String before, String after) {
+        String a = before != null ? before : "";
+        if (after != null && a.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Rank keys out of order: " + before + " >= " + after);
+        }
+        if (before != null && after == null) return increment(before);
+        if (before == null && after != null) return decrement(after);
+        return midpoint(a, after);
+    }
+
+    /**
+     * Smallest step above the key: the last digit below 'z' incremented, dropping the 'z's after it.
+     * Only a key of all 'z's has to grow.
+     */
+    private static String increment(String key) {
+        for (int i = key.length() - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(key.charAt(i));
+            if (digit < BASE - 1) {
+                return key.substring(0, i) + DIGITS.charAt(digit + 1);
+            }
+        }
+        return key + DIGITS.charAt(1);
+    }
+
+    /**
+     * Step below the key: its last digit decremented (a trailing '0' left behind is dropped).
+     * Only a key of zeros ending in '1' has to grow, since nothing shorter is below it.
+     */
+    private static String decrement(String key) {
+        int last = key.length() - 1;
+        int digit = DIGITS.indexOf(key.charAt(last));
+        if (digit > 1) {
+            return key.substring(0, last) + DIGITS.charAt(digit - 1);
+        }
+        int length = last;
+        while (length > 0 && key.charAt(length - 1) == '0') {
+            length--;
+        }
+        if (length > 0) {
+            return key.substring(0, length);
+        }
+        return key.substring(0, last) + "0" + DIGITS.charAt(BASE - 1);
+    }
+
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // Skip the common prefix (a is padded with zeros)
+            int n = 0;
+            while (n < b.length() && (n < a.length() ? a.charAt(n) : '0') == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(n < a.length() ? a.substring(n) : "", b.substring(n));
+            }
+        }
+
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB) / 2));
+        }
+        // Adjacent first digits
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+
+    /**
+     * {@code count} evenly spaced keys of equal length, used for initial assignment and re-spacing
+     */
+    public static String[] spread(int count) {
+        int width = 1;
+        long range = BASE;
+        while (range <= count) {
+            range *= BASE;
+            width++;
+        }
+        String[] keys = new String[count];
+        long step = range / (count + 1);
+        for (int i = 0; i < count; i++) {
+            keys[i] = format((i + 1) * step, width);
+        }
+        return keys;
+    }
+
+    private static String format(long value, int width) {
+        char[] digits = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        // Trailing zeros do not change the fraction and are not allowed
+        int length = width;
+        while (length > 1 && digits[length - 1] == '0') {
+            length--;
+        }
+        return new String(digits, 0, length);
+    }
+}
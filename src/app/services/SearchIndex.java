@@ -0,0 +1,259 @@
+package app.services;
+
+import app.models.Comment;
+import app.models.Task;
+
+import java.util.*;
+
+/**
+ * Inverted full-text index over the board: term -> tasks containing it.
+ *
+ * Terms are lower-cased runs of letters and digits. They are kept in a sorted map, so a query term
+ * matches every indexed term it is a prefix of through a single range view. Tasks are numbered
+ * internally and postings hold those numbers, so a query is evaluated on bit sets. Each task's terms are
+ * remembered, so an edit only touches the postings of the terms that actually changed.
+ * Title, description and labels are indexed with the board; comments and the issue description live
+ * in task-details/ and are indexed from there in the background (see {@link #indexDetailsAsync}).
+ * All methods are synchronized, the background indexer and the FX thread share one instance.
+ */
+public class SearchIndex {
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    // Internal document number per task id; numbers of removed tasks are not reused
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> taskIds = new ArrayList<>();
+    // Terms of the board fields (title, description, labels) per task id
+    private final Map<String, Set<String>> boardTerms = new HashMap<>();
+    // Terms of the details (issue description, comments) per task id, once known
+    private final Map<String, Set<String>> detailTerms = new HashMap<>();
+    // Details are read from disk once per index, however many sessions open the board
+    private boolean detailsIndexerStarted;
+
+    /**
+     * Indexes a new or edited task. Details are only re-indexed when they are loaded in memory.
+     */
+    public synchronized void update(Task task) {
+        String id = task.getId();
+        replaceTerms(id, boardTerms, detailTerms, boardTermsOf(task));
+        if (task.isDetailsLoaded()) {
+            replaceTerms(id, detailTerms, boardTerms, detailTermsOf(task));
+        }
+    }
+
+    public synchronized void remove(Task task) {
+        String id = task.getId();
+        if (!docIds.containsKey(id)) return;
+        replaceTerms(id, boardTerms, detailTerms, Collections.emptySet());
+        replaceTerms(id, detailTerms, boardTerms, Collections.emptySet());
+        boardTerms.remove(id);
+        detailTerms.remove(id);
+        taskIds.set(docIds.remove(id), null);
+    }
+
+    /**
+     * Ids of the tasks matching every word of the query, each word as a prefix. Empty for a blank query.
+     * The result is a read-only snapshot.
+     */
+    public synchronized Set<String> search(String query) {
+        Set<String> words = tokenize(query);
+        if (words.isEmpty()) return Collections.emptySet();
+
+        BitSet result = null;
+        for (String word : words) {
+            BitSet docs = matchPrefix(word);
+            if (result == null) {
+                result = docs;
+            } else {
+                result.and(docs);
+            }
+            if (result.isEmpty()) return Collections.emptySet();
+        }
+        return new Matches(result);
+    }
+
+    private BitSet matchPrefix(String prefix) {
+        BitSet docs = new BitSet(taskIds.size());
+        for (Postings termDocs : postings.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            termDocs.addTo(docs);
+        }
+        return docs;
+    }
+
+    /**
+     * Reads the details of the given tasks from the board's storage on a daemon thread and indexes them.
+     * Only the first call starts the indexer; tasks added or edited later are indexed by update.
+     * Tasks whose details are already indexed (loaded in memory when they were indexed) are skipped,
+     * tasks edited (or removed) meanwhile keep their newer state.
+     */
+    public void indexDetailsAsync(Collection<String> taskIds, StorageService storage) {
+        synchronized (this) {
+            if (detailsIndexerStarted || taskIds.isEmpty()) return;
+            detailsIndexerStarted = true;
+        }
+
+        Thread indexer = new Thread(() -> {
+            for (String id : taskIds) {
+                synchronized (this) {
+                    if (!boardTerms.containsKey(id) || detailTerms.containsKey(id)) continue;
+                }
+                Set<String> terms = tokenize(storage.readTaskDetailsText(id));
+                synchronized (this) {
+                    if (boardTerms.containsKey(id) && !detailTerms.containsKey(id)) {
+                        replaceTerms(id, detailTerms, boardTerms, terms);
+                    }
+                }
+            }
+        }, "search-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * Sets one field group's terms for a task; postings are kept while the other group still has the term
+     */
+    private void replaceTerms(String id, Map<String, Set<String>> group, Map<String, Set<String>> other,
+                              Set<String> terms) {
+        int doc = docIds.computeIfAbsent(id, key -> {
+            taskIds.add(key);
+            return taskIds.size() - 1;
+        });
+        Set<String> previous = group.getOrDefault(id, Collections.emptySet());
+        Set<String> otherTerms = other.getOrDefault(id, Collections.emptySet());
+        for (String term : previous) {
+            if (!terms.contains(term) && !otherTerms.contains(term)) {
+                Postings termDocs = postings.get(term);
+                if (termDocs != null && termDocs.remove(doc) && termDocs.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String term : terms) {
+            if (!previous.contains(term) && !otherTerms.contains(term)) {
+                postings.computeIfAbsent(term, t -> new Postings()).add(doc);
+            }
+        }
+        group.put(id, terms);
+    }
+
+    private static Set<String> boardTermsOf(Task task) {
+        Set<String> terms = new HashSet<>();
+        addTerms(terms, task.getTitle());
+        addTerms(terms, task.getDescription());
+        if (task.getLabels() != null) {
+            for (String label : task.getLabels()) {
+                addTerms(terms, label);
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> detailTermsOf(Task task) {
+        Set<String> terms = new HashSet<>();
+        addTerms(terms, task.getIssueDescription());
+        if (task.getComments() != null) {
+            for (Comment comment : task.getComments()) {
+                addTerms(terms, comment.getText());
+            }
+        }
+        return terms;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        addTerms(terms, text);
+        return terms;
+    }
+
+    private static void addTerms(Set<String> terms, String text) {
+        if (text == null) return;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Sorted document numbers of one term. Documents are numbered in insertion order, so adding a new
+     * task appends; re-adding or removing one is a binary search and an array copy.
+     */
+    private static final class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void add(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) return;
+            index = -index - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            docs[index] = doc;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) return false;
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(docs[i]);
+            }
+        }
+    }
+
+    /**
+     * Search result as a set of task ids, backed by the matching document numbers.
+     * Tasks removed after the search are left out, by size as well as by iteration.
+     */
+    private final class Matches extends AbstractSet<String> {
+        private final BitSet docs;
+
+        Matches(BitSet docs) {
+            this.docs = docs;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer doc;
+            synchronized (SearchIndex.this) {
+                doc = docIds.get(o);
+            }
+            return doc != null && docs.get(doc);
+        }
+
+        @Override
+        public int size() {
+            return liveIds().size();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return Collections.unmodifiableList(liveIds()).iterator();
+        }
+
+        private List<String> liveIds() {
+            List<String> ids = new ArrayList<>(docs.cardinality());
+            synchronized (SearchIndex.this) {
+                for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+                    String id = taskIds.get(doc);
+                    if (id != null) {
+                        ids.add(id);
+                    }
+                }
+            }
+            return ids;
+        }
+    }
+}
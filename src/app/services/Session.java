@@ -0,0 +1,70 @@
+package app.services;
+
+import app.models.Task;
+import app.models.User;
+
+import java.util.List;
+
+/**
+ * One logged-in user working on one board. Created by {@link UserService#login} and handed to the
+ * controllers, instead of a process-wide current user, so several sessions can live in one JVM.
+ * The board's storage and its in-memory TaskRepository are shared by every session on that board;
+ * the repository is attached once the board has been loaded (StorageService#loadBoard).
+ */
+public class Session {
+
+    private final User user;
+    private final StorageService storage;
+    private TaskRepository board;
+
+    public Session(User user, StorageService storage) {
+        this.user = user;
+        this.storage = storage;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public String getUsername() {
+        return user.getUsername();
+    }
+
+    public boolean isAdmin() {
+        return user.getPermission() == User.Permission.ADMIN;
+    }
+
+    public StorageService getStorage() {
+        return storage;
+    }
+
+    /**
+     * The loaded board, or null while it is still being read
+     */
+    public TaskRepository getBoard() {
+        return board;
+    }
+
+    public void setBoard(TaskRepository board) {
+        this.board = board;
+    }
+
+    public boolean canView(Task task) {
+        return AccessControl.canView(user, task);
+    }
+
+    /**
+     * Visibility by id and labels, without the task (see TaskRepository#labelsOf)
+     */
+    public boolean canView(String taskId, List<String> labels) {
+        return AccessControl.canView(user, taskId, labels);
+    }
+
+    public boolean canModify(Task task) {
+        return AccessControl.canModify(user, task);
+    }
+
+    public boolean canCreateTasks() {
+        return AccessControl.canCreate(user);
+    }
+}
@@ -1,28 +1,182 @@
 package app.services;
 
 import app.models.Comment;
+import app.models.LabelList;
 import app.models.Task;
 import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Persistence of one board: a snapshot (tasks.json, tasks.bin or tasks.<n>.bin), the journal of changes since, and the
+ * task-details/ directory, all inside the board's directory. Each board has a single instance
+ * ({@link #forBoard(Path)}), shared by every session working on it, with its own writer thread
+ * and a single TaskRepository ({@link #loadBoard}).
+ * The default board is the working directory, which is where the files have always been.
+ */
 public class StorageService {
 
     private static final String FILE = "tasks.json";
+    private static final String BINARY_FILE = "tasks.bin";
+    // Storage backend: -Dtaskmanager.storage=binary writes tasks.bin instead of tasks.json,
+    // -Dtaskmanager.storage=mapped additionally serves the board from memory-mapped snapshots (tasks.<n>.bin)
+    private static final String STORAGE_MODE = System.getProperty("taskmanager.storage", "json");
+    private static final boolean MAPPED_STORE = "mapped".equalsIgnoreCase(STORAGE_MODE);
+    private static final boolean BINARY_SNAPSHOTS = MAPPED_STORE || "binary".equalsIgnoreCase(STORAGE_MODE);
+    // Mapped boards write every snapshot to a new tasks.<generation>.bin, since the mapped one cannot be replaced
+    private static final Pattern GENERATION_FILE = Pattern.compile("tasks\\.(\\d+)\\.bin");
+    private static final String JOURNAL_FILE = "tasks.journal";
+    private static final String DETAILS_DIR = "task-details";
+    // Number of journal records after which the board is rewritten as a fresh snapshot
+    private static final int COMPACTION_THRESHOLD = 500;
+    private static final int DEFAULT_BATCH_SIZE = 200;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     
     private static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(LabelList.class, new LabelListAdapter())
+            // Comments and issue descriptions live in task-details/, snapshots and journal records leave them out.
+            // Reading still accepts them, so older files with inline details keep loading.
+            .addSerializationExclusionStrategy(new ExclusionStrategy() {
+                @Override
+                public boolean shouldSkipField(FieldAttributes field) {
+                    return field.getDeclaringClass() == Task.class
+                            && (field.getName().equals("comments") || field.getName().equals("issueDescription"));
+                }
+
+                @Override
+                public boolean shouldSkipClass(Class<?> clazz) {
+                    return false;
+                }
+            })
             .create();
-    
+
+    // One instance per board directory (absolute, normalized)
+    private static final Map<Path, StorageService> boards = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final Path snapshotFile;
+    private final Path binaryFile;
+    private final Path detailsDir;
+
+    // Board read by preloadTasks, valid while writeCount is still at preloadedAtWrite
+    private CompletableFuture<List<Task>> preloadedTasks;
+    private volatile long preloadedAtWrite;
+    private final AtomicLong writeCount = new AtomicLong();
+
+    // Single background thread doing every disk write of this board, so saves never run on the JavaFX thread
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-storage-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Latest board snapshot waiting to be written; back-to-back saves replace it and cost a single write
+    private final AtomicReference<Snapshot> pendingSnapshot = new AtomicReference<>();
+
+    private final TaskJournal journal;
+
+    // The board's repository once it has been read, shared by every session on it; set under boardLock
+    private volatile TaskRepository board;
+    private final Object boardLock = new Object();
+
+    private StorageService(Path directory) {
+        this.directory = directory;
+        this.snapshotFile = directory.resolve(FILE);
+        this.binaryFile = directory.resolve(BINARY_FILE);
+        this.detailsDir = directory.resolve(DETAILS_DIR);
+        this.journal = new TaskJournal(directory.resolve(JOURNAL_FILE).toString(), gson, writer);
+    }
+
+    /**
+     * The storage of the board kept in the given directory
+     */
+    public static StorageService forBoard(Path directory) {
+        Path key = directory.toAbsolutePath().normalize();
+        // The working directory is kept relative, so its files keep their plain names
+        Path base = key.equals(Path.of("").toAbsolutePath().normalize()) ? Path.of("") : key;
+        return boards.computeIfAbsent(key, k -> new StorageService(base));
+    }
+
+    /**
+     * The board in the working directory
+     */
+    public static StorageService getDefault() {
+        return forBoard(Path.of(""));
+    }
+
+    /**
+     * Flushes every board opened in this process (application exit)
+     */
+    public static void flushAll() {
+        for (StorageService storage : boards.values()) {
+            storage.flush();
+        }
+    }
+
+    /**
+     * Reads a label array, dropping the null and blank entries hand-edited files may contain
+     * (LabelList rejects them). Written like any other list.
+     */
+    private static class LabelListAdapter implements JsonDeserializer<LabelList> {
+        @Override
+        public LabelList deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            LabelList labels = new LabelList();
+            if (!json.isJsonArray()) return labels;
+            for (JsonElement element : json.getAsJsonArray()) {
+                if (element.isJsonPrimitive() && !element.getAsString().isBlank()) {
+                    labels.add(element.getAsString());
+                }
+            }
+            return labels;
+        }
+    }
+
+    /**
+     * A copy of the board for the writer, with the sequence number of the last journal record it contains
+     */
+    private static final class Snapshot {
+        final List<Task> tasks;
+        final long sequence;
+
+        Snapshot(List<Task> tasks, long sequence) {
+            this.tasks = tasks;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * On-disk form of the parts of a task that are only needed by the detail view
+     */
+    private static class TaskDetails {
+        private String issueDescription;
+        private List<Comment> comments;
+    }
+
     private static class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
         @Override
         public JsonElement serialize(LocalDateTime dateTime, Type type, JsonSerializationContext context) {
@@ -39,56 +193,669 @@ public class StorageService {
         }
     }
 
-    public static List<Task> loadTasks() {
+    /**
+     * The board's repository, read on first use and then shared by every session working on the board,
+     * so all of them edit one model and one journal. Blocks while another session is reading it;
+     * only the caller that actually reads the board gets batches.
+     */
+    public TaskRepository loadBoard(int batchSize, Consumer<List<Task>> onBatch) {
+        synchronized (boardLock) {
+            if (board == null) {
+                board = new TaskRepository(loadTasks(batchSize, onBatch), this);
+            }
+            return board;
+        }
+    }
+
+    public List<Task> loadTasks() {
+        return loadTasks(DEFAULT_BATCH_SIZE, batch -> { });
+    }
+
+    /**
+     * Streams the task snapshot record by record, handing every {@code batchSize} parsed tasks to {@code onBatch}
+     * so callers can start rendering before the whole file is read.
+     * Batches reflect the snapshot; the returned list additionally has the journal applied and is authoritative.
+     * A board read by {@link #preloadTasks()} is handed out instead when nothing was written since.
+     * Throws IllegalStateException if the board cannot be read, rather than handing out an empty one.
+     */
+    public List<Task> loadTasks(int batchSize, Consumer<List<Task>> onBatch) {
+        List<Task> preloaded = takePreloadedTasks();
+        if (preloaded != null) {
+            for (int from = 0; from < preloaded.size(); from += batchSize) {
+                onBatch.accept(preloaded.subList(from, Math.min(preloaded.size(), from + batchSize)));
+            }
+            return preloaded;
+        }
+        return readTasks(batchSize, onBatch);
+    }
+
+    /**
+     * Starts reading the board on a background thread (login screen), so the next loadTasks finds it parsed.
+     * This also initializes Gson and the storage thread ahead of time.
+     */
+    public synchronized void preloadTasks() {
+        // Already in memory
+        if (board != null || preloadedTasks != null) return;
+        CompletableFuture<List<Task>> future = new CompletableFuture<>();
+        preloadedTasks = future;
+        Thread preloader = new Thread(() -> {
+            try {
+                List<Task> tasks = readTasks(DEFAULT_BATCH_SIZE, batch -> { });
+                // Counted after the read, which may itself have compacted the journal
+                preloadedAtWrite = writeCount.get();
+                future.complete(tasks);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, "task-preloader");
+        preloader.setDaemon(true);
+        preloader.start();
+    }
+
+    /**
+     * The preloaded board, or null if there is none or the store has been written since it was read.
+     * Waits for a preload that is still running, which is never slower than starting over.
+     */
+    private List<Task> takePreloadedTasks() {
+        CompletableFuture<List<Task>> future;
+        synchronized (this) {
+            future = preloadedTasks;
+            preloadedTasks = null;
+        }
+        if (future == null) return null;
+        List<Task> tasks;
         try {
-            if (!Files.exists(Path.of(FILE))) return new ArrayList<>();
-            List<Task> tasks = gson.fromJson(new FileReader(FILE), new TypeToken<List<Task>>(){}.getType());
-            // Ensure all tasks have IDs and default values (for backward compatibility with old JSON files)
-            if (tasks != null) {
-                for (Task task : tasks) {
-                    if (task.getId() == null || task.getId().isEmpty()) {
-                        task.setId(java.util.UUID.randomUUID().toString());
-                    }
-                    if (task.getLabels() == null) {
-                        task.setLabels(new ArrayList<>());
-                    }
-                    if (task.getComments() == null) {
-                        task.setComments(new ArrayList<>());
-                    }
-                    if (task.getBackgroundColor() == null) {
-                        task.setBackgroundColor(Task.BackgroundColor.WHITE);
-                    }
-                    if (task.getCreationDate() == null) {
-                        task.setCreationDate(LocalDateTime.now());
-                    }
-                    if (task.getIssueDescription() == null) {
-                        task.setIssueDescription("");
+            tasks = future.join();
+        } catch (CompletionException e) {
+            // Read again by the caller, which then gets the error itself
+            return null;
+        }
+        return preloadedAtWrite == writeCount.get() ? tasks : null;
+    }
+
+    private List<Task> readTasks(int batchSize, Consumer<List<Task>> onBatch) {
+        List<Task> tasks = new ArrayList<>();
+        // Make sure saves still queued from a previous session are on disk before reading
+        flush();
+        try {
+            Path snapshot = currentSnapshotFile();
+            if (MAPPED_STORE) {
+                tasks = openMappedStore(snapshot, batchSize, onBatch);
+            } else if (snapshot != null) {
+                tasks = readSnapshot(snapshot, batchSize, onBatch);
+            }
+            // Bring the snapshot up to date with the changes recorded since it was written
+            FileTime carriedAt = lastModified(snapshot);
+            journal.replay(tasks);
+            boolean migrated = !MAPPED_STORE && migrateInlineDetails(tasks, carriedAt);
+            // A snapshot without the inline copies, so they are not merged again on every start
+            if (migrated || journal.getRecordCount() >= COMPACTION_THRESHOLD) {
+                saveTasksAsync(tasks);
+            }
+            return tasks;
+        } catch (Exception e) {
+            // Not an empty board: the next snapshot would overwrite the real one
+            throw new IllegalStateException("Cannot read the board in " + directory.toAbsolutePath() + ": " + e, e);
+        }
+    }
+
+    /**
+     * Opens the memory-mapped backend. A JSON snapshot (and its journal) is migrated into tasks.bin first.
+     * Batches are lazy views, so only the tasks a caller actually touches get decoded.
+     */
+    private List<Task> openMappedStore(Path snapshot, int batchSize, Consumer<List<Task>> onBatch) throws IOException {
+        if (snapshot != null && !isBinarySnapshot(snapshot)) {
+            List<Task> migrated = readSnapshot(snapshot, Integer.MAX_VALUE, batch -> { });
+            FileTime carriedAt = lastModified(snapshot);
+            journal.replay(migrated);
+            migrateInlineDetails(migrated, carriedAt);
+            saveTasks(migrated);
+            snapshot = currentSnapshotFile();
+        }
+        MappedTaskStore store = snapshot != null ? MappedTaskStore.open(snapshot) : MappedTaskStore.empty();
+        // Generations left behind by a crash, or still mapped when the last snapshot was written (Windows)
+        deleteGenerationsBefore(snapshot);
+        for (int from = 0; from < store.size(); from += batchSize) {
+            onBatch.accept(store.subList(from, Math.min(store.size(), from + batchSize)));
+        }
+        return store;
+    }
+
+    /**
+     * The snapshot the journal applies to: the newest of the latest tasks.<n>.bin, tasks.bin and tasks.json,
+     * so switching modes keeps the data
+     */
+    private Path currentSnapshotFile() throws IOException {
+        Map.Entry<Long, Path> generation = listGenerations().lastEntry();
+        Path newest = null;
+        // On equal times the first one wins
+        for (Path file : new Path[] { generation != null ? generation.getValue() : null, binaryFile, snapshotFile }) {
+            if (file != null && Files.exists(file) && (newest == null
+                    || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(newest)) > 0)) {
+                newest = file;
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * The tasks.<n>.bin files of this board by generation
+     */
+    private TreeMap<Long, Path> listGenerations() throws IOException {
+        TreeMap<Long, Path> generations = new TreeMap<>();
+        if (!Files.isDirectory(directory.toAbsolutePath())) return generations;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory.toAbsolutePath(), "tasks.*.bin")) {
+            for (Path file : files) {
+                Matcher matcher = GENERATION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.put(Long.parseLong(matcher.group(1)), directory.resolve(file.getFileName()));
+                }
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * Deletes the generations older than the given snapshot file (all of them if it is not a generation,
+     * being newer than they are). One that is still mapped cannot be deleted
+     * on Windows until its mapping has been garbage collected; it is left for the next snapshot to retry.
+     */
+    private void deleteGenerationsBefore(Path current) throws IOException {
+        for (Path file : listGenerations().values()) {
+            if (file.equals(current)) break;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Still mapped
+            }
+        }
+    }
+
+    private static List<Task> readSnapshot(Path file, int batchSize, Consumer<List<Task>> onBatch) throws IOException {
+        if (isBinarySnapshot(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return BinaryTaskCodec.read(in, batchSize, onBatch);
+            }
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file))) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                List<Task> batch = new ArrayList<>(Math.min(batchSize, 1024));
+                while (reader.hasNext()) {
+                    Task task = gson.fromJson(reader, Task.class);
+                    if (task == null) continue;
+                    // Ensure the task has an ID and default values (for backward compatibility with old JSON files)
+                    applyDefaults(task);
+                    tasks.add(task);
+                    batch.add(task);
+                    if (batch.size() >= batchSize) {
+                        onBatch.accept(batch);
+                        batch = new ArrayList<>(Math.min(batchSize, 1024));
                     }
-                    // Ensure comments have IDs
-                    if (task.getComments() != null) {
-                        for (Comment comment : task.getComments()) {
-                            if (comment.getId() == null || comment.getId().isEmpty()) {
-                                comment.setId(java.util.UUID.randomUUID().toString());
-                            }
-                            if (comment.getTimestamp() == null) {
-                                comment.setTimestamp(LocalDateTime.now());
-                            }
-                        }
+                }
+                reader.endArray();
+                if (!batch.isEmpty()) {
+                    onBatch.accept(batch);
+                }
+            }
+        } catch (EOFException e) {
+            // Empty file, treat as an empty board
+        }
+        return tasks;
+    }
+
+    private static boolean isBinarySnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt() == BinaryTaskCodec.MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static void writeSnapshot(List<Task> tasks, Path file, boolean binary) throws IOException {
+        if (binary && tasks instanceof MappedTaskStore) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                ((MappedTaskStore) tasks).writeTo(out);
+            }
+        } else if (binary) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                BinaryTaskCodec.write(tasks, out);
+            }
+        } else {
+            try (Writer fileWriter = Files.newBufferedWriter(file)) {
+                gson.toJson(tasks, fileWriter);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot file in either format (detected from its header)
+     */
+    public static List<Task> readSnapshotFile(Path file) throws IOException {
+        return readSnapshot(file, Integer.MAX_VALUE, batch -> { });
+    }
+
+    public static void writeSnapshotFile(List<Task> tasks, Path file, boolean binary) throws IOException {
+        writeSnapshot(tasks, file, binary);
+    }
+
+    /**
+     * Converts a tasks.json snapshot into the binary format
+     */
+    public static void convertJsonToBinary(Path jsonFile, Path binaryFile) throws IOException {
+        writeSnapshot(readSnapshotFile(jsonFile), binaryFile, true);
+    }
+
+    /**
+     * Converts a binary snapshot back into tasks.json format
+     */
+    public static void convertBinaryToJson(Path binaryFile, Path jsonFile) throws IOException {
+        writeSnapshot(readSnapshotFile(binaryFile), jsonFile, false);
+    }
+
+    static void applyDefaults(Task task) {
+        if (task.getId() == null || task.getId().isEmpty()) {
+            task.setId(java.util.UUID.randomUUID().toString());
+        }
+        if (task.getLabels() == null) {
+            task.setLabels(new LabelList());
+        }
+        if (task.getComments() == null) {
+            task.setComments(new ArrayList<>());
+        }
+        if (task.getBackgroundColor() == null) {
+            task.setBackgroundColor(Task.BackgroundColor.WHITE);
+        }
+        if (task.getCreationDate() == null) {
+            task.setCreationDate(LocalDateTime.now());
+        }
+        if (task.getIssueDescription() == null) {
+            task.setIssueDescription("");
+        }
+        // Ensure comments have IDs
+        for (Comment comment : task.getComments()) {
+            if (comment.getId() == null || comment.getId().isEmpty()) {
+                comment.setId(java.util.UUID.randomUUID().toString());
+            }
+            if (comment.getTimestamp() == null) {
+                comment.setTimestamp(LocalDateTime.now());
+            }
+        }
+        // Details are fetched on demand by loadTaskDetails; older files carry them inline (see migrateInlineDetails)
+        task.setDetailsLoaded(!task.getComments().isEmpty() || !task.getIssueDescription().isEmpty());
+    }
+
+    /**
+     * Moves details that older files carried inline to their own file, since the next snapshot drops them.
+     * If the task already has a details file the two are merged: comments by id, in time order, and the
+     * issue description from whichever side is newer (the inline one is as old as the snapshot or journal
+     * it came with). Each merge and write runs on the writer thread, like any other details write, and the
+     * inline copies are cleared once it has written the file; the detail view reads it again.
+     * Returns whether any task was migrated.
+     */
+    private boolean migrateInlineDetails(List<Task> tasks, FileTime carriedAt) {
+        Map<Task, Future<Boolean>> writes = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            if (!task.isDetailsLoaded()) continue;
+            String taskId = task.getId();
+            TaskDetails inline = new TaskDetails();
+            inline.issueDescription = task.getIssueDescription() != null ? task.getIssueDescription() : "";
+            inline.comments = new ArrayList<>(task.getComments());
+            // On the writer like every other details write, so it is ordered with edits of the same task
+            writes.put(task, writer.submit(() -> migrateDetails(taskId, inline, carriedAt)));
+        }
+        boolean migrated = false;
+        for (Map.Entry<Task, Future<Boolean>> write : writes.entrySet()) {
+            try {
+                if (write.getValue().get()) {
+                    Task task = write.getKey();
+                    task.setIssueDescription("");
+                    task.setComments(new ArrayList<>());
+                    task.setDetailsLoaded(false);
+                    migrated = true;
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return migrated;
+    }
+
+    /**
+     * Writer thread: merges one task's inline details with its details file, if it has one, and writes it
+     */
+    private boolean migrateDetails(String taskId, TaskDetails inline, FileTime carriedAt) {
+        try {
+            TaskDetails stored = readDetails(taskId);
+            if (stored != null) {
+                FileTime storedAt = Files.getLastModifiedTime(detailsFile(taskId));
+                mergeDetails(inline, stored, carriedAt == null || storedAt.compareTo(carriedAt) > 0);
+            }
+            return writeDetails(taskId, gson.toJson(inline));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static void mergeDetails(TaskDetails inline, TaskDetails stored, boolean storedIsNewer) {
+        String storedDescription = stored.issueDescription != null ? stored.issueDescription : "";
+        if (inline.issueDescription.isEmpty() || (storedIsNewer && !storedDescription.isEmpty())) {
+            inline.issueDescription = storedDescription;
+        }
+        if (stored.comments == null) return;
+        Map<String, Comment> comments = new LinkedHashMap<>();
+        for (Comment comment : stored.comments) {
+            comments.put(comment.getId(), comment);
+        }
+        for (Comment comment : inline.comments) {
+            comments.putIfAbsent(comment.getId(), comment);
+        }
+        List<Comment> merged = new ArrayList<>(comments.values());
+        merged.sort(Comparator.comparing(Comment::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder())));
+        inline.comments = merged;
+    }
+
+    /**
+     * Modification time of the newer of the snapshot and the journal, null if neither exists
+     */
+    private FileTime lastModified(Path snapshot) {
+        FileTime newest = null;
+        for (Path file : new Path[] { snapshot, directory.resolve(JOURNAL_FILE) }) {
+            try {
+                if (file != null && Files.exists(file)) {
+                    FileTime time = Files.getLastModifiedTime(file);
+                    if (newest == null || time.compareTo(newest) > 0) {
+                        newest = time;
                     }
                 }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Reads the comments and issue description of a task from task-details/ (no-op if already loaded)
+     */
+    public void loadTaskDetails(Task task) {
+        if (task.isDetailsLoaded()) return;
+        try {
+            TaskDetails details = readDetails(task.getId());
+            if (details != null) {
+                task.setIssueDescription(details.issueDescription != null ? details.issueDescription : "");
+                task.setComments(details.comments != null ? details.comments : new ArrayList<>());
+            }
+            task.setDetailsLoaded(true);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Issue description and comment texts of a task as stored in task-details/, without touching the task
+     * (used to index details in the background). Empty if the task has none.
+     */
+    public String readTaskDetailsText(String taskId) {
+        try {
+            TaskDetails details = readDetails(taskId);
+            if (details == null) return "";
+            StringBuilder text = new StringBuilder(details.issueDescription != null ? details.issueDescription : "");
+            if (details.comments != null) {
+                for (Comment comment : details.comments) {
+                    text.append('\n').append(comment.getText());
+                }
+            }
+            return text.toString();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return "";
+        }
+    }
+
+    private TaskDetails readDetails(String taskId) throws IOException {
+        Path file = detailsFile(taskId);
+        if (!Files.exists(file)) return null;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            return gson.fromJson(reader, TaskDetails.class);
+        }
+    }
+
+    private Path detailsFile(String taskId) {
+        return detailsDir.resolve(taskId + ".json");
+    }
+
+    /**
+     * Serializes the details on the calling thread; returns null when there is nothing to store
+     */
+    private static String encodeDetails(Task task) {
+        if (task.getComments().isEmpty() && task.getIssueDescription().isEmpty()) return null;
+        TaskDetails details = new TaskDetails();
+        details.issueDescription = task.getIssueDescription();
+        details.comments = task.getComments();
+        return gson.toJson(details);
+    }
+
+    /**
+     * False if the file could not be written
+     */
+    private boolean writeDetails(String taskId, String json) {
+        Path file = detailsFile(taskId);
+        try {
+            if (json == null) {
+                Files.deleteIfExists(file);
+            } else {
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, json);
             }
-            return tasks != null ? tasks : new ArrayList<>();
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
-            return new ArrayList<>();
+            return false;
         }
     }
 
-    public static void saveTasks(List<Task> tasks) {
-        try (FileWriter writer = new FileWriter(FILE)) {
-            gson.toJson(tasks, writer);
+    /**
+     * Queues a write of the task's details if they were loaded (otherwise the file on disk is still current)
+     */
+    private void saveDetailsAsync(Task task) {
+        if (!task.isDetailsLoaded()) return;
+        String taskId = task.getId();
+        String json = encodeDetails(task);
+        writer.execute(() -> writeDetails(taskId, json));
+    }
+
+    /**
+     * Writes a full snapshot of the board and drops the journal it supersedes.
+     * Runs synchronously; the UI should use {@link #saveTasksAsync(List)}.
+     */
+    public void saveTasks(List<Task> tasks) {
+        writeCount.incrementAndGet();
+        Snapshot snapshot = new Snapshot(copyForWriter(tasks), journal.getSequence());
+        journal.resetCount();
+        try {
+            writer.submit(() -> writeSnapshot(snapshot)).get();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Queues a snapshot write on the storage thread. Saves requested before the previous one
+     * reached the disk are coalesced into a single write of the latest list.
+     */
+    public void saveTasksAsync(List<Task> tasks) {
+        writeCount.incrementAndGet();
+        journal.resetCount();
+        if (pendingSnapshot.getAndSet(new Snapshot(copyForWriter(tasks), journal.getSequence())) == null) {
+            writer.execute(() -> {
+                Snapshot snapshot = pendingSnapshot.getAndSet(null);
+                if (snapshot != null) {
+                    writeSnapshot(snapshot);
+                }
+            });
+        }
+    }
+
+    /**
+     * Captures the board for the writer thread. Tasks are copied here, on the thread that edits them in place
+     * (labels, comments), so the writer never reads a task while it changes. A mapped store is copied by index,
+     * only its modified tasks are copied.
+     */
+    private static List<Task> copyForWriter(List<Task> tasks) {
+        if (tasks instanceof MappedTaskStore) {
+            return ((MappedTaskStore) tasks).copy();
+        }
+        List<Task> copy = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            copy.add(task.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Blocks until every queued journal append and snapshot has been written (logout / window close)
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes into a temp file and renames it over the snapshot, so a crash never leaves a half-written board.
+     * If the rename fails the journal is kept, so no change is lost and the next compaction tries again.
+     * A coalesced snapshot may be newer than journal appends still queued behind it; those are dropped
+     * (see TaskJournal#truncate).
+     */
+    private void writeSnapshot(Snapshot snapshot) {
+        if (MAPPED_STORE) {
+            writeGeneration(snapshot);
+            return;
+        }
+        List<Task> tasks = snapshot.tasks;
+        Path target = BINARY_SNAPSHOTS ? binaryFile : snapshotFile;
+        Path temp = Path.of(target + ".tmp");
+        try {
+            writeSnapshot(tasks, temp, BINARY_SNAPSHOTS);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        journal.truncate(snapshot.sequence);
+    }
+
+    /**
+     * Mapped boards: writes the snapshot as the next tasks.<n>.bin rather than over the mapped file, which
+     * Windows refuses to replace. The store the snapshot was copied from then switches to the new file, and
+     * the older generations are deleted.
+     */
+    private void writeGeneration(Snapshot snapshot) {
+        List<Task> tasks = snapshot.tasks;
+        Path target;
+        try {
+            Map.Entry<Long, Path> latest = listGenerations().lastEntry();
+            target = directory.resolve("tasks." + (latest != null ? latest.getKey() + 1 : 1) + ".bin");
+            Path temp = Path.of(target + ".tmp");
+            writeSnapshot(tasks, temp, true);
+            // A new name, so nothing has it mapped
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            if (tasks instanceof MappedTaskStore) {
+                ((MappedTaskStore) tasks).publish(target);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        journal.truncate(snapshot.sequence);
+        try {
+            deleteGenerationsBefore(target);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Journals a newly created task (appended at the end of the list)
+     */
+    public void recordTaskAdded(List<Task> tasks, Task task) {
+        writeCount.incrementAndGet();
+        pinIfMapped(tasks, task);
+        saveDetailsAsync(task);
+        journal.appendUpsert(task);
+        compactIfNeeded(tasks);
+    }
+
+    /**
+     * Journals an edit of a task's fields (title, description, labels, colour, comments)
+     */
+    public void recordTaskUpdated(List<Task> tasks, Task task) {
+        writeCount.incrementAndGet();
+        pinIfMapped(tasks, task);
+        saveDetailsAsync(task);
+        journal.appendUpsert(task);
+        compactIfNeeded(tasks);
+    }
+
+    /**
+     * Journals a status change and/or reorder. Position is carried by the task's status and rank,
+     * so this is a single-card record and the order of the list does not matter.
+     */
+    public void recordTaskMoved(List<Task> tasks, Task task) {
+        writeCount.incrementAndGet();
+        pinIfMapped(tasks, task);
+        journal.appendUpsert(task);
+        compactIfNeeded(tasks);
+    }
+
+    /**
+     * Saves a bulk rank change (column re-spacing) as a snapshot instead of one record per card
+     */
+    public void recordTasksReranked(List<Task> tasks, Collection<Task> changed) {
+        for (Task task : changed) {
+            pinIfMapped(tasks, task);
+        }
+        saveTasksAsync(tasks);
+    }
+
+    /**
+     * Journals the removal of a task
+     */
+    public void recordTaskDeleted(List<Task> tasks, Task task) {
+        writeCount.incrementAndGet();
+        String taskId = task.getId();
+        writer.execute(() -> writeDetails(taskId, null));
+        journal.appendDelete(task);
+        compactIfNeeded(tasks);
+    }
+
+    /**
+     * A task modified in place must stay on the heap until the next snapshot contains it
+     */
+    private static void pinIfMapped(List<Task> tasks, Task task) {
+        if (tasks instanceof MappedTaskStore) {
+            ((MappedTaskStore) tasks).pin(task);
+        }
+    }
+
+    private void compactIfNeeded(List<Task> tasks) {
+        if (journal.getRecordCount() >= COMPACTION_THRESHOLD) {
+            saveTasksAsync(tasks);
+        }
+    }
 }
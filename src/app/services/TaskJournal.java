@@ -0,0 +1,248 @@
+package app.services;
+
+import app.models.Task;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Append-only log of task mutations, replayed on top of the last tasks.json snapshot.
+ * Each line is a small JSON record, so a single card move no longer rewrites the whole board.
+ */
+class TaskJournal {
+
+    static final String OP_UPSERT = "UPSERT";
+    static final String OP_MOVE = "MOVE";
+    static final String OP_DELETE = "DELETE";
+
+    private final String file;
+    private final Gson gson;
+    // Appends are handed to the storage writer thread so callers never block on disk
+    private final Executor writer;
+    private int recordCount = 0;
+    // Number of the last record handed to append, on the thread that edits the tasks
+    private long sequence = 0;
+    // Every record up to this number is in a snapshot on disk; only used on the writer thread
+    private long truncatedThrough = 0;
+
+    TaskJournal(String file, Gson gson, Executor writer) {
+        this.file = file;
+        this.gson = gson;
+        this.writer = writer;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Number of the last record appended so far; a snapshot taken now contains every record up to it
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    void appendUpsert(Task task) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", OP_UPSERT);
+        record.add("task", gson.toJsonTree(task));
+        append(record);
+    }
+
+    void appendDelete(Task task) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", OP_DELETE);
+        record.addProperty("id", task.getId());
+        append(record);
+    }
+
+    /**
+     * Serializes the record on the calling thread (tasks are only mutated there) and queues the disk append.
+     * A record that a snapshot written meanwhile already contains is not appended: replayed over that
+     * snapshot it would undo later changes the snapshot carries (e.g. a column re-spacing).
+     */
+    private void append(JsonObject record) {
+        String line = gson.toJson(record) + "\n";
+        recordCount++;
+        long number = ++sequence;
+        writer.execute(() -> {
+            if (number <= truncatedThrough) return;
+            try (FileWriter fileWriter = new FileWriter(file, true)) {
+                fileWriter.write(line);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Applies every journal record to the given snapshot list, in order.
+     * A truncated last line (e.g. crash during append) ends the replay.
+     */
+    void replay(List<Task> tasks) {
+        recordCount = 0;
+        if (!Files.exists(Path.of(file))) return;
+
+        Replay replay = new Replay(tasks);
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JsonObject record;
+                try {
+                    record = JsonParser.parseString(line).getAsJsonObject();
+                } catch (Exception e) {
+                    break;
+                }
+                apply(record, replay);
+                recordCount++;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        replay.removeDeleted();
+    }
+
+    private void apply(JsonObject record, Replay replay) {
+        switch (record.get("op").getAsString()) {
+            case OP_UPSERT -> {
+                Task task = gson.fromJson(record.get("task"), Task.class);
+                StorageService.applyDefaults(task);
+                replay.upsert(task);
+            }
+            // Written before cards carried rank keys: status plus the id of the following card
+            case OP_MOVE -> {
+                String beforeId = record.has("beforeId") && !record.get("beforeId").isJsonNull()
+                        ? record.get("beforeId").getAsString() : null;
+                replay.move(record.get("id").getAsString(),
+                        Task.Status.valueOf(record.get("status").getAsString()), beforeId);
+            }
+            case OP_DELETE -> replay.delete(record.get("id").getAsString());
+            default -> { }
+        }
+    }
+
+    /**
+     * Applies records through an id index rather than scanning the list for every record: positions for a
+     * plain list, built once, or the mapped store's own index, so its records are never decoded on the way.
+     * Deletions are collected and removed in one pass at the end.
+     */
+    private static final class Replay {
+        private final List<Task> tasks;
+        private final MappedTaskStore store;
+        // Position of each task in a plain list, built on first use
+        private Map<String, Integer> positions;
+        private final Set<String> deleted = new HashSet<>();
+
+        Replay(List<Task> tasks) {
+            this.tasks = tasks;
+            this.store = tasks instanceof MappedTaskStore ? (MappedTaskStore) tasks : null;
+        }
+
+        private Map<String, Integer> positions() {
+            if (positions == null) {
+                positions = new HashMap<>(tasks.size() * 2);
+                for (int i = 0; i < tasks.size(); i++) {
+                    positions.put(tasks.get(i).getId(), i);
+                }
+            }
+            return positions;
+        }
+
+        Task find(String id) {
+            if (deleted.contains(id)) return null;
+            if (store != null) return store.getById(id);
+            Integer position = positions().get(id);
+            return position != null ? tasks.get(position) : null;
+        }
+
+        void upsert(Task task) {
+            // A task deleted earlier in the journal still has its place until removeDeleted
+            deleted.remove(task.getId());
+            if (store != null) {
+                if (!store.replace(task)) {
+                    store.add(task);
+                }
+                return;
+            }
+            Integer position = positions().get(task.getId());
+            if (position != null) {
+                tasks.set(position, task);
+            } else {
+                positions.put(task.getId(), tasks.size());
+                tasks.add(task);
+            }
+        }
+
+        void delete(String id) {
+            if (find(id) != null) {
+                deleted.add(id);
+            }
+        }
+
+        /**
+         * Moves a card by list position. Only the order among cards of the same status matters (the repository
+         * ranks unranked cards in stored order per column), so "end of the column" is the end of the list.
+         * A move shifts the list, so it costs a scan and the positions are rebuilt on next use; these records
+         * only occur in journals written before rank keys.
+         */
+        void move(String id, Task.Status status, String beforeId) {
+            Task task = find(id);
+            if (task == null) return;
+            removeDeleted();
+            tasks.remove(task);
+            // Positions after the removed card have shifted
+            positions = null;
+            task.setStatus(status);
+            Task before = beforeId != null ? find(beforeId) : null;
+            int index = before != null ? tasks.indexOf(before) : -1;
+            tasks.add(index >= 0 ? index : tasks.size(), task);
+            positions = null;
+        }
+
+        void removeDeleted() {
+            if (deleted.isEmpty()) return;
+            if (store != null) {
+                store.removeIds(deleted);
+            } else {
+                tasks.removeIf(task -> deleted.contains(task.getId()));
+                positions = null;
+            }
+            deleted.clear();
+        }
+    }
+
+    /**
+     * Called when a snapshot containing every record so far has been requested
+     */
+    void resetCount() {
+        recordCount = 0;
+    }
+
+    /**
+     * Deletes the journal file; must run on the writer thread, right after the snapshot that supersedes it
+     */
+    /**
+     * Drops the journal once a snapshot containing every record up to {@code sequence} is on disk.
+     * Runs on the writer thread; records up to that number still queued behind the snapshot are skipped.
+     */
+    void truncate(long sequence) {
+        truncatedThrough = Math.max(truncatedThrough, sequence);
+        try {
+            Files.deleteIfExists(Path.of(file));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
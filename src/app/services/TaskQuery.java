@@ -0,0 +1,385 @@
+package app.services;
+
+import app.models.Task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Board filter query, compiled once into a predicate plus the index hints the board can use.
+ *
+ * Syntax (case-insensitive keywords, words are ANDed):
+ * <pre>
+ *   status:in_review  label:bug  color:light_blue  text:"login page"  crash
+ *   created&gt;7d  created&lt;=2025-01-31  created:2025-02-01
+ *   a OR b,  NOT a / -a,  ( ... )
+ * </pre>
+ * Dates are yyyy-MM-dd or relative to now (30m, 12h, 7d, 2w); {@code created>7d} means "in the last 7 days".
+ * Bare words and text: match as word prefixes through the repository's SearchIndex.
+ */
+public class TaskQuery {
+
+    /**
+     * A compiled sub-expression. {@code statuses} and {@code label} describe what every matching task must
+     * have (null when unconstrained), which lets the board skip columns and use the label index.
+     */
+    private static final class Node {
+        final Predicate<Task> test;
+        final EnumSet<Task.Status> statuses;
+        final String label;
+
+        Node(Predicate<Task> test, EnumSet<Task.Status> statuses, String label) {
+            this.test = test;
+            this.statuses = statuses;
+            this.label = label;
+        }
+    }
+
+    private final String text;
+    private final Node root;
+
+    private TaskQuery(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Parses and compiles a query. Text terms are looked up in the repository's search index now,
+     * so the query should be compiled again after tasks change.
+     *
+     * @throws IllegalArgumentException with a user-facing message if the query is malformed
+     */
+    public static TaskQuery compile(String text, TaskRepository repository) {
+        Parser parser = new Parser(tokenize(text), repository);
+        Node root = parser.parseQuery();
+        return new TaskQuery(text, root);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean test(Task task) {
+        return root.test.test(task);
+    }
+
+    /**
+     * False if no task of this column can match, so the column does not need to be scanned
+     */
+    public boolean includesStatus(Task.Status status) {
+        return root.statuses == null || root.statuses.contains(status);
+    }
+
+    /**
+     * A label every matching task has, or null; lets the board iterate the label index instead of the column
+     */
+    public String getRequiredLabel() {
+        return root.label;
+    }
+
+    // --- tokenizer ---
+
+    private static final String OPERATOR_CHARS = ":<>=";
+
+    /**
+     * A parenthesis, or a term split into field, operator and value (field and operator are null for bare words)
+     */
+    private static final class Token {
+        final char paren;
+        final String field;
+        final String operator;
+        final String value;
+        final boolean quoted;
+
+        Token(char paren) {
+            this(paren, null, null, null, false);
+        }
+
+        Token(char paren, String field, String operator, String value, boolean quoted) {
+            this.paren = paren;
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+            this.quoted = quoted;
+        }
+
+        boolean isKeyword(String keyword) {
+            return paren == 0 && field == null && !quoted && value.equalsIgnoreCase(keyword);
+        }
+    }
+
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = text != null ? text.length() : 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(new Token(c));
+                i++;
+            } else {
+                StringBuilder raw = new StringBuilder();
+                String field = null;
+                String operator = null;
+                boolean inQuotes = false;
+                boolean quoted = false;
+                while (i < length) {
+                    c = text.charAt(i);
+                    if (c == '"') {
+                        inQuotes = !inQuotes;
+                        quoted = true;
+                        i++;
+                    } else if (!inQuotes && (Character.isWhitespace(c) || c == '(' || c == ')')) {
+                        break;
+                    } else if (!inQuotes && !quoted && operator == null && OPERATOR_CHARS.indexOf(c) >= 0 && raw.length() > 0) {
+                        field = raw.toString();
+                        raw.setLength(0);
+                        int end = i + 1;
+                        while (end < length && OPERATOR_CHARS.indexOf(text.charAt(end)) >= 0) {
+                            end++;
+                        }
+                        operator = text.substring(i, end);
+                        i = end;
+                    } else {
+                        raw.append(c);
+                        i++;
+                    }
+                }
+                if (inQuotes) {
+                    throw new IllegalArgumentException("Missing closing quote");
+                }
+                tokens.add(new Token((char) 0, field, operator, raw.toString(), quoted));
+            }
+        }
+        return tokens;
+    }
+
+    // --- parser ---
+
+    /**
+     * Recursive descent: query := or ; or := and (OR and)* ; and := unary ([AND] unary)* ;
+     * unary := (NOT | -) unary | '(' or ')' | term
+     */
+    private static final class Parser {
+        private final List<Token> tokens;
+        private final TaskRepository repository;
+        private int position = 0;
+
+        Parser(List<Token> tokens, TaskRepository repository) {
+            this.tokens = tokens;
+            this.repository = repository;
+        }
+
+        Node parseQuery() {
+            if (tokens.isEmpty()) {
+                return new Node(task -> true, null, null);
+            }
+            Node node = parseOr();
+            if (position < tokens.size()) {
+                throw new IllegalArgumentException(tokens.get(position).paren == ')' ? "Unbalanced ')'" : "Unexpected input");
+            }
+            return node;
+        }
+
+        private Node parseOr() {
+            Node left = parseAnd();
+            while (peekKeyword("OR")) {
+                position++;
+                left = or(left, parseAnd());
+            }
+            return left;
+        }
+
+        private Node parseAnd() {
+            Node left = parseUnary();
+            while (position < tokens.size() && tokens.get(position).paren != ')' && !peekKeyword("OR")) {
+                if (peekKeyword("AND")) {
+                    position++;
+                }
+                left = and(left, parseUnary());
+            }
+            return left;
+        }
+
+        private Node parseUnary() {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Incomplete query");
+            }
+            Token token = tokens.get(position);
+            if (token.isKeyword("NOT")) {
+                position++;
+                return not(parseUnary());
+            }
+            if (token.paren == '(') {
+                position++;
+                Node inner = parseOr();
+                if (position >= tokens.size() || tokens.get(position).paren != ')') {
+                    throw new IllegalArgumentException("Missing ')'");
+                }
+                position++;
+                return inner;
+            }
+            if (token.paren == ')') {
+                throw new IllegalArgumentException("Unexpected ')'");
+            }
+            if (token.isKeyword("AND") || token.isKeyword("OR")) {
+                throw new IllegalArgumentException("Misplaced " + token.value.toUpperCase(Locale.ROOT));
+            }
+            position++;
+            if (token.field == null && !token.quoted && token.value.startsWith("-") && token.value.length() > 1) {
+                return not(term(new Token((char) 0, null, null, token.value.substring(1), false)));
+            }
+            if (token.field != null && token.field.startsWith("-") && token.field.length() > 1) {
+                return not(term(new Token((char) 0, token.field.substring(1), token.operator, token.value, token.quoted)));
+            }
+            return term(token);
+        }
+
+        private boolean peekKeyword(String keyword) {
+            return position < tokens.size() && tokens.get(position).isKeyword(keyword);
+        }
+
+        private Node term(Token token) {
+            if (token.field == null) {
+                return text(token.value);
+            }
+            String field = token.field.toLowerCase(Locale.ROOT);
+            String value = token.value;
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Missing value for " + field);
+            }
+            switch (field) {
+                case "status": {
+                    requireOperator(token, ":", "=");
+                    Task.Status status = parseEnum(Task.Status.class, value, field);
+                    return new Node(task -> task.getStatus() == status, EnumSet.of(status), null);
+                }
+                case "label": {
+                    requireOperator(token, ":", "=");
+                    return new Node(task -> task.getLabels() != null && task.getLabels().contains(value), null, value);
+                }
+                case "color": {
+                    requireOperator(token, ":", "=");
+                    Task.BackgroundColor color = parseEnum(Task.BackgroundColor.class, value, field);
+                    return new Node(task -> task.getBackgroundColor() == color, null, null);
+                }
+                case "text":
+                    requireOperator(token, ":", "=");
+                    return text(value);
+                case "created":
+                    return created(token.operator, value);
+                default:
+                    throw new IllegalArgumentException("Unknown field: " + token.field);
+            }
+        }
+
+        private Node text(String value) {
+            Set<String> ids = repository.search(value);
+            return new Node(task -> ids.contains(task.getId()), null, null);
+        }
+
+        private Node created(String operator, String value) {
+            boolean relative = Character.isLetter(value.charAt(value.length() - 1));
+            LocalDateTime from = parseDate(value);
+            // An absolute date with ':' or '=' means that whole day
+            LocalDateTime dayEnd = relative ? null : from.plusDays(1);
+            Predicate<LocalDateTime> test;
+            switch (operator) {
+                case ">":
+                    test = date -> relative ? date.isAfter(from) : !date.isBefore(dayEnd);
+                    break;
+                case ">=":
+                    test = date -> !date.isBefore(from);
+                    break;
+                case "<":
+                    test = date -> date.isBefore(from);
+                    break;
+                case "<=":
+                    test = date -> relative ? !date.isAfter(from) : date.isBefore(dayEnd);
+                    break;
+                case ":":
+                case "=":
+                    test = date -> relative ? !date.isBefore(from) : !date.isBefore(from) && date.isBefore(dayEnd);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operator: created" + operator);
+            }
+            return new Node(task -> task.getCreationDate() != null && test.test(task.getCreationDate()), null, null);
+        }
+
+        private static LocalDateTime parseDate(String value) {
+            char unit = Character.toLowerCase(value.charAt(value.length() - 1));
+            if (Character.isLetter(unit)) {
+                long amount;
+                try {
+                    amount = Long.parseLong(value.substring(0, value.length() - 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid date: " + value);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                switch (unit) {
+                    case 'm': return now.minusMinutes(amount);
+                    case 'h': return now.minusHours(amount);
+                    case 'd': return now.minusDays(amount);
+                    case 'w': return now.minusWeeks(amount);
+                    default: throw new IllegalArgumentException("Invalid date unit: " + value);
+                }
+            }
+            try {
+                return LocalDate.parse(value).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date: " + value + " (use yyyy-MM-dd or e.g. 7d)");
+            }
+        }
+
+        private static void requireOperator(Token token, String... allowed) {
+            for (String operator : allowed) {
+                if (operator.equals(token.operator)) return;
+            }
+            throw new IllegalArgumentException("Use " + token.field + ":value");
+        }
+
+        private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field) {
+            String name = value.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+            try {
+                return Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown " + field + ": " + value);
+            }
+        }
+    }
+
+    // --- combinators ---
+
+    private static Node and(Node a, Node b) {
+        EnumSet<Task.Status> statuses;
+        if (a.statuses == null) {
+            statuses = b.statuses;
+        } else if (b.statuses == null) {
+            statuses = a.statuses;
+        } else {
+            statuses = EnumSet.copyOf(a.statuses);
+            statuses.retainAll(b.statuses);
+        }
+        return new Node(a.test.and(b.test), statuses, a.label != null ? a.label : b.label);
+    }
+
+    private static Node or(Node a, Node b) {
+        EnumSet<Task.Status> statuses = null;
+        if (a.statuses != null && b.statuses != null) {
+            statuses = EnumSet.copyOf(a.statuses);
+            statuses.addAll(b.statuses);
+        }
+        String label = a.label != null && a.label.equals(b.label) ? a.label : null;
+        return new Node(a.test.or(b.test), statuses, label);
+    }
+
+    private static Node not(Node a) {
+        return new Node(a.test.negate(), null, null);
+    }
+}
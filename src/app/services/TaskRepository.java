@@ -0,0 +1,368 @@
+package app.services;
+
+import app.models.LabelList;
+import app.models.Task;
+
+import java.util.*;
+
+/**
+ * In-memory board model shared by the controllers.
+ *
+ * Keeps an id -> card index, one rank-ordered set per status and per (label, status) pair on top of
+ * the list persisted by StorageService, and journals every mutation through it. Moves are O(log n)
+ * and only change the moved card's rank key; the storage list itself is unordered. Indexes are
+ * updated incrementally, so columns, label filters and counts cost O(result). Text search goes through
+ * a SearchIndex maintained the same way. Each repository belongs to the StorageService of one board.
+ *
+ * The indexes hold cards (id, status, rank, labels), not tasks. On a memory-mapped board (MappedTaskStore)
+ * the tasks stay in the store and are only decoded when they are looked up, e.g. for the cards on screen.
+ */
+public class TaskRepository {
+
+    /**
+     * What the indexes need of a task. Status, rank and labels are copied when the card is indexed
+     * (the task's own label list is edited in place by the detail view).
+     */
+    private static final class Card {
+        final String id;
+        // The task itself on a heap board, null on a mapped one
+        final Task task;
+        // Index in the storage list, so a delete does not search it
+        int position;
+        Task.Status status;
+        String rank;
+        LabelList labels;
+
+        Card(Task task, boolean keepTask, int position) {
+            this.id = task.getId();
+            this.task = keepTask ? task : null;
+            this.position = position;
+            takeFrom(task);
+        }
+
+        void takeFrom(Task task) {
+            status = task.getStatus();
+            rank = task.getRank();
+            labels = task.getLabels() != null ? new LabelList(task.getLabels()) : new LabelList();
+        }
+    }
+
+    private static final Comparator<Card> BY_RANK = Comparator
+            .comparing((Card card) -> card.rank)
+            .thenComparing(card -> card.id);
+
+    private final StorageService storage;
+    // As persisted by the storage
+    private final List<Task> tasks;
+    // The same list when the board is memory-mapped, otherwise null
+    private final MappedTaskStore store;
+    private final Map<String, Card> byId = new HashMap<>();
+    private final EnumMap<Task.Status, TreeSet<Card>> columns = new EnumMap<>(Task.Status.class);
+    private final Map<String, EnumMap<Task.Status, TreeSet<Card>>> byLabel = new HashMap<>();
+    private final SearchIndex searchIndex = new SearchIndex();
+
+    public TaskRepository(List<Task> tasks, StorageService storage) {
+        this.tasks = tasks;
+        this.storage = storage;
+        this.store = tasks instanceof MappedTaskStore ? (MappedTaskStore) tasks : null;
+        for (Task.Status status : Task.Status.values()) {
+            columns.put(status, new TreeSet<>(BY_RANK));
+        }
+
+        // Boards saved before rank keys existed: unranked cards go after the ranked ones, in stored order
+        EnumMap<Task.Status, List<Card>> unranked = new EnumMap<>(Task.Status.class);
+        for (int i = 0; i < tasks.size(); i++) {
+            // Records of a mapped board are decoded one at a time and only their card is kept
+            Task task = store != null ? store.peek(i) : tasks.get(i);
+            Card card = new Card(task, store == null, i);
+            byId.put(card.id, card);
+            searchIndex.update(task);
+            if (card.rank == null) {
+                unranked.computeIfAbsent(card.status, s -> new ArrayList<>()).add(card);
+            } else {
+                index(card);
+            }
+        }
+        for (Map.Entry<Task.Status, List<Card>> entry : unranked.entrySet()) {
+            List<Card> ordered = new ArrayList<>(columns.get(entry.getKey()));
+            ordered.addAll(entry.getValue());
+            respace(entry.getKey(), ordered);
+        }
+    }
+
+    public static TaskRepository load(StorageService storage) {
+        return new TaskRepository(storage.loadTasks(), storage);
+    }
+
+    public StorageService getStorage() {
+        return storage;
+    }
+
+    /**
+     * The task with the given id; on a mapped board it is decoded from the store unless it is still cached
+     */
+    public Task findById(String id) {
+        Card card = id != null ? byId.get(id) : null;
+        return card != null ? taskOf(card) : null;
+    }
+
+    /**
+     * Labels of the task as last indexed, without decoding it (read-only), or null for an unknown id
+     */
+    public List<String> labelsOf(String id) {
+        Card card = id != null ? byId.get(id) : null;
+        return card != null ? card.labels : null;
+    }
+
+    /**
+     * Rank key of the task as last indexed, or null for an unknown id
+     */
+    public String rankOf(String id) {
+        Card card = id != null ? byId.get(id) : null;
+        return card != null ? card.rank : null;
+    }
+
+    private Task taskOf(Card card) {
+        return card.task != null ? card.task : store.getById(card.id);
+    }
+
+    /**
+     * Ids of the tasks of one column, in display order (read-only view)
+     */
+    public Collection<String> getColumn(Task.Status status) {
+        return idsOf(columns.get(status));
+    }
+
+    /**
+     * Ids of the tasks of one column carrying the given label, in display order (read-only view)
+     */
+    public Collection<String> getColumn(Task.Status status, String label) {
+        if (label == null) return getColumn(status);
+        EnumMap<Task.Status, TreeSet<Card>> labelColumns = byLabel.get(label);
+        if (labelColumns == null || !labelColumns.containsKey(status)) return Collections.emptyList();
+        return idsOf(labelColumns.get(status));
+    }
+
+    private static Collection<String> idsOf(Set<Card> cards) {
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<Card> it = cards.iterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return it.next().id;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return cards.size();
+            }
+        };
+    }
+
+    /**
+     * Ids of the tasks whose title, description, labels, issue description or comments contain
+     * every word of the query as a word prefix
+     */
+    public Set<String> search(String query) {
+        return searchIndex.search(query);
+    }
+
+    /**
+     * Indexes comments and issue descriptions, which are not loaded with the board, in the background
+     */
+    public void indexDetailsAsync() {
+        searchIndex.indexDetailsAsync(new ArrayList<>(byId.keySet()), storage);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public int countByStatus(Task.Status status) {
+        return columns.get(status).size();
+    }
+
+    public int countByLabel(String label) {
+        EnumMap<Task.Status, TreeSet<Card>> labelColumns = byLabel.get(label);
+        if (labelColumns == null) return 0;
+        int count = 0;
+        for (TreeSet<Card> column : labelColumns.values()) {
+            count += column.size();
+        }
+        return count;
+    }
+
+    /**
+     * Every label used on the board, sorted
+     */
+    public SortedSet<String> getLabels() {
+        return new TreeSet<>(byLabel.keySet());
+    }
+
+    /**
+     * Adds a new task at the end of its column
+     */
+    public void add(Task task) {
+        TreeSet<Card> column = columns.get(task.getStatus());
+        task.setRank(RankKeys.between(column.isEmpty() ? null : column.last().rank, null));
+        // A mapped store pins new tasks, so the card does not need to hold it
+        tasks.add(task);
+        Card card = new Card(task, store == null, tasks.size() - 1);
+        index(card);
+        byId.put(card.id, card);
+        searchIndex.update(task);
+        storage.recordTaskAdded(tasks, task);
+    }
+
+    /**
+     * Moves a task to the end of the given column (column drop)
+     */
+    public void moveToEnd(Task task, Task.Status targetStatus) {
+        Card card = byId.get(task.getId());
+        if (card == null) return;
+        unindex(card);
+        TreeSet<Card> column = columns.get(targetStatus);
+        place(task, card, targetStatus, column.isEmpty() ? null : column.last(), null);
+    }
+
+    /**
+     * Moves a task right above or below another card, taking over that card's status (card drop)
+     */
+    public void moveNextTo(Task task, Task target, boolean above) {
+        Card card = byId.get(task.getId());
+        Card targetCard = byId.get(target.getId());
+        if (card == null || targetCard == null || card == targetCard) return;
+        unindex(card);
+        TreeSet<Card> column = columns.get(targetCard.status);
+        if (above) {
+            place(task, card, targetCard.status, column.lower(targetCard), targetCard);
+        } else {
+            place(task, card, targetCard.status, targetCard, column.higher(targetCard));
+        }
+    }
+
+    /**
+     * Gives the (already detached) task a rank between its new neighbours and journals it
+     */
+    private void place(Task task, Card card, Task.Status status, Card before, Card after) {
+        task.setStatus(status);
+        try {
+            task.setRank(RankKeys.between(before != null ? before.rank : null, after != null ? after.rank : null));
+        } catch (IllegalArgumentException e) {
+            // Neighbours with equal keys (edited file): re-key the column with the card in its new place
+            e.printStackTrace();
+            card.status = status;
+            List<Card> ordered = new ArrayList<>(columns.get(status));
+            ordered.add(before != null ? ordered.indexOf(before) + 1 : 0, card);
+            respace(status, ordered);
+            return;
+        }
+        card.takeFrom(task);
+        index(card);
+        if (task.getRank().length() > RankKeys.MAX_LENGTH) {
+            respace(status, new ArrayList<>(columns.get(status)));
+        } else {
+            storage.recordTaskMoved(tasks, task);
+        }
+    }
+
+    /**
+     * Gives the column evenly spaced keys in the given order (keys grew too long, or the board predates ranks).
+     * This touches every card of the column, so it is saved as a snapshot rather than journaled.
+     */
+    private void respace(Task.Status status, List<Card> ordered) {
+        String[] ranks = RankKeys.spread(ordered.size());
+        List<Task> changed = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            Card card = ordered.get(i);
+            if (card.rank != null) {
+                unindex(card);
+            }
+            Task task = taskOf(card);
+            task.setRank(ranks[i]);
+            card.rank = ranks[i];
+            index(card);
+            changed.add(task);
+        }
+        storage.recordTasksReranked(tasks, changed);
+    }
+
+    /**
+     * Journals an in-place edit of a task (title, description, labels, colour, comments)
+     */
+    public void update(Task task) {
+        Card card = byId.get(task.getId());
+        if (card == null) return;
+        // Labels may have been edited in place: re-index under the current ones
+        unindex(card);
+        card.takeFrom(task);
+        index(card);
+        searchIndex.update(task);
+        storage.recordTaskUpdated(tasks, task);
+    }
+
+    public void remove(Task task) {
+        Card card = byId.remove(task.getId());
+        if (card == null) return;
+        unindex(card);
+        searchIndex.remove(task);
+        removeAt(card.position);
+        storage.recordTaskDeleted(tasks, task);
+    }
+
+    /**
+     * Removes a task from the storage list by moving the last one into its place (the list is unordered)
+     */
+    private void removeAt(int position) {
+        String moved;
+        if (store != null) {
+            moved = store.removeSwapping(position);
+        } else {
+            Task last = tasks.remove(tasks.size() - 1);
+            moved = null;
+            if (position < tasks.size()) {
+                tasks.set(position, last);
+                moved = last.getId();
+            }
+        }
+        if (moved != null) {
+            byId.get(moved).position = position;
+        }
+    }
+
+    /**
+     * Adds the card to its status column and label sets; status and rank must not change until unindex
+     */
+    private void index(Card card) {
+        columns.get(card.status).add(card);
+        for (String label : card.labels) {
+            byLabel.computeIfAbsent(label, l -> new EnumMap<>(Task.Status.class))
+                    .computeIfAbsent(card.status, s -> new TreeSet<>(BY_RANK))
+                    .add(card);
+        }
+    }
+
+    private void unindex(Card card) {
+        columns.get(card.status).remove(card);
+        for (String label : card.labels) {
+            EnumMap<Task.Status, TreeSet<Card>> labelColumns = byLabel.get(label);
+            if (labelColumns == null) continue;
+            TreeSet<Card> column = labelColumns.get(card.status);
+            if (column != null && column.remove(card) && column.isEmpty()) {
+                labelColumns.remove(card.status);
+                if (labelColumns.isEmpty()) {
+                    byLabel.remove(label);
+                }
+            }
+        }
+    }
+}
@@ -7,225 +7,425 @@ import com.google.gson.reflect.TypeToken;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.nio.file.*;
-import java.security.MessageDigest;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Accounts and logins. A successful login returns a Session; there is no process-wide current user,
+ * admin operations take the session performing them.
+ *
+ * users.json is read once into a username -> user directory and only re-read when the file changes on disk
+ * (its modification time or size differs from what was last read or written). Changes are applied to the
+ * directory right away and written by a single background thread; writes queued back-to-back are coalesced.
+ * Passwords are hashed with PasswordHasher; old SHA-256 hashes are upgraded on the next successful login.
+ */
 public class UserService {
 
     private static final String FILE = "users.json";
+    private static final String ADMIN_USERNAME = "admin";
     private static final Gson gson = new Gson();
-    private static User currentUser = null;
 
+    // Guarded by UserService.class; in file order
+    private static Map<String, User> directory;
+    // Modification time and size of users.json when it was last read or written by us
+    private static FileTime loadedModified;
+    private static long loadedSize = -1;
+    // Verified against for unknown usernames
+    private static String dummyHash;
+    // Admin hash known to match the default password, so a reload only runs the key derivation if it changed
+    private static String verifiedAdminHash;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-storage-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Key derivation for login and register; one thread, so concurrent attempts do not compete for the CPU
+    private static final ExecutorService passwordExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "password-verifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // A write is queued and has not copied the directory yet; guarded by UserService.class
+    private static boolean writePending;
+
+    /**
+     * Salted hash of a password for storing in users.json (see PasswordHasher)
+     */
     public static String hashPassword(String password) {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = md.digest(password.getBytes("UTF-8"));
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
+            return PasswordHasher.hash(password);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * Runs {@link #register} on the password thread, key derivation is too slow for the JavaFX thread
+     */
+    public static CompletableFuture<Boolean> registerAsync(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> register(username, password), passwordExecutor);
+    }
+
+    /**
+     * Runs {@link #login} on the password thread; the result is completed there, not on the JavaFX thread
+     */
+    public static CompletableFuture<Session> loginAsync(String username, String password, StorageService board) {
+        return CompletableFuture.supplyAsync(() -> login(username, password, board), passwordExecutor);
+    }
+
     public static boolean register(String username, String password) {
-        List<User> users = loadUsers();
-        
         // Prevent registering with "admin" username (reserved for default admin account)
-        if (username.equalsIgnoreCase("admin")) {
-            return false;
-        }
-        
-        // Check if username already exists
-        if (users.stream().anyMatch(u -> u.getUsername().equals(username))) {
+        if (username.equalsIgnoreCase(ADMIN_USERNAME)) {
             return false;
         }
 
-        String hashedPassword = hashPassword(password);
-        if (hashedPassword == null) {
-            return false;
+        // Check if username already exists (again below, it may be taken while hashing)
+        synchronized (UserService.class) {
+            if (loadUsers().containsKey(username)) {
+                return false;
+            }
         }
 
-        // New users are assigned READ_ONLY permission by default
-        // Only admin can change permissions later
-        User newUser = new User(username, hashedPassword, User.Permission.READ_ONLY);
-        users.add(newUser);
-        return saveUsers(users);
-    }
-
-    public static boolean login(String username, String password) {
-        List<User> users = loadUsers();
         String hashedPassword = hashPassword(password);
-        
         if (hashedPassword == null) {
             return false;
         }
 
-        User user = users.stream()
-                .filter(u -> u.getUsername().equals(username) && u.getHashedPassword().equals(hashedPassword))
-                .findFirst()
-                .orElse(null);
+        synchronized (UserService.class) {
+            Map<String, User> users = loadUsers();
+            if (users.containsKey(username)) {
+                return false;
+            }
 
-        if (user != null) {
-            currentUser = user;
+            // New users are assigned READ_ONLY permission by default
+            // Only admin can change permissions later
+            User newUser = new User(username, hashedPassword, User.Permission.READ_ONLY);
+            users.put(username, newUser);
+            saveUsersAsync();
             return true;
         }
-        return false;
     }
 
-    public static void logout() {
-        currentUser = null;
+    /**
+     * Checks the credentials and opens a session on the given board
+     * @return the new session, or null if the username or password is wrong
+     */
+    public static Session login(String username, String password, StorageService board) {
+        User user;
+        String storedHash;
+        synchronized (UserService.class) {
+            user = loadUsers().get(username);
+            storedHash = user != null ? user.getHashedPassword() : null;
+        }
+
+        boolean valid;
+        try {
+            // Unknown users are checked against a dummy hash so they take as long as a wrong password
+            valid = PasswordHasher.verify(password, storedHash != null ? storedHash : dummyHash())
+                    && storedHash != null;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (!valid) {
+            return null;
+        }
+
+        if (PasswordHasher.needsRehash(storedHash)) {
+            upgradeHash(user, storedHash, password);
+        }
+        return new Session(user, board);
     }
 
-    public static User getCurrentUser() {
-        return currentUser;
+    /**
+     * Replaces a legacy or cheaper hash with one at the current cost, now that the password is known
+     */
+    private static void upgradeHash(User user, String storedHash, String password) {
+        String upgraded = hashPassword(password);
+        if (upgraded == null) return;
+        synchronized (UserService.class) {
+            // Skip if the user was reloaded or changed meanwhile
+            if (directory != null && directory.get(user.getUsername()) == user
+                    && storedHash.equals(user.getHashedPassword())) {
+                user.setHashedPassword(upgraded);
+                saveUsersAsync();
+            }
+        }
     }
 
-    public static boolean isLoggedIn() {
-        return currentUser != null;
+    private static synchronized String dummyHash() {
+        if (dummyHash == null) {
+            dummyHash = PasswordHasher.hash("dummy-password");
+        }
+        return dummyHash;
     }
 
-    private static List<User> loadUsers() {
+    /**
+     * The cached directory, re-read if users.json changed since we last read or wrote it.
+     * Callers hold the UserService lock.
+     */
+    private static Map<String, User> loadUsers() {
+        Path path = Path.of(FILE);
+        FileTime modified = null;
+        long size = -1;
         try {
-            List<User> users;
-            if (!Files.exists(Path.of(FILE))) {
-                users = new ArrayList<>();
-            } else {
-                users = gson.fromJson(new FileReader(FILE), new TypeToken<List<User>>(){}.getType());
-                if (users == null) {
-                    users = new ArrayList<>();
-                }
+            if (Files.exists(path)) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                modified = attributes.lastModifiedTime();
+                size = attributes.size();
             }
-            
-            // Ensure default admin account exists with ADMIN permission
-            ensureAdminAccount(users);
-            
-            return users;
         } catch (Exception e) {
             e.printStackTrace();
-            List<User> users = new ArrayList<>();
-            ensureAdminAccount(users);
-            return users;
         }
+        if (directory != null && size == loadedSize && (modified == null || modified.equals(loadedModified))) {
+            return directory;
+        }
+
+        List<User> users = null;
+        if (modified != null) {
+            try (FileReader reader = new FileReader(FILE)) {
+                users = gson.fromJson(reader, new TypeToken<List<User>>(){}.getType());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        directory = new LinkedHashMap<>();
+        if (users != null) {
+            for (User user : users) {
+                directory.put(user.getUsername(), user);
+            }
+        }
+        loadedModified = modified;
+        loadedSize = size;
+
+        // Ensure default admin account exists with ADMIN permission
+        ensureAdminAccount(directory);
+
+        return directory;
     }
 
     /**
      * Ensures the default admin account (username: "admin", password: "admin") exists with ADMIN permission
      */
-    private static void ensureAdminAccount(List<User> users) {
-        String adminUsername = "admin";
-        String adminPassword = "admin";
-        String adminHashedPassword = hashPassword(adminPassword);
-        
-        if (adminHashedPassword == null) {
-            return; // Can't create admin if hashing fails
-        }
-        
-        // Check if admin account exists
-        User adminUser = users.stream()
-                .filter(u -> u.getUsername().equals(adminUsername))
-                .findFirst()
-                .orElse(null);
-        
-        if (adminUser == null) {
-            // Create admin account if it doesn't exist
-            adminUser = new User(adminUsername, adminHashedPassword, User.Permission.ADMIN);
-            users.add(adminUser);
-            saveUsers(users);
-        } else {
-            // Ensure admin account has ADMIN permission
-            if (adminUser.getPermission() != User.Permission.ADMIN) {
+    private static void ensureAdminAccount(Map<String, User> users) {
+        User adminUser = users.get(ADMIN_USERNAME);
+        try {
+            if (adminUser == null) {
+                // Create admin account if it doesn't exist
+                verifiedAdminHash = PasswordHasher.hash("admin");
+                users.put(ADMIN_USERNAME, new User(ADMIN_USERNAME, verifiedAdminHash, User.Permission.ADMIN));
+                saveUsersAsync();
+                return;
+            }
+            String hash = adminUser.getHashedPassword();
+            boolean defaultPassword = hash != null
+                    && (hash.equals(verifiedAdminHash) || PasswordHasher.verify("admin", hash));
+            if (defaultPassword) {
+                verifiedAdminHash = hash;
+            } else {
+                // Restore the default password (in case it was changed)
+                verifiedAdminHash = PasswordHasher.hash("admin");
+                adminUser.setHashedPassword(verifiedAdminHash);
+            }
+            if (!defaultPassword || adminUser.getPermission() != User.Permission.ADMIN) {
+                // Restore ADMIN permission as well
                 adminUser.setPermission(User.Permission.ADMIN);
-                // Update password hash if it's incorrect (in case password was changed)
-                if (!adminUser.getHashedPassword().equals(adminHashedPassword)) {
-                    adminUser.setHashedPassword(adminHashedPassword);
-                }
-                saveUsers(users);
-            } else if (!adminUser.getHashedPassword().equals(adminHashedPassword)) {
-                // If permission is correct but password hash is wrong, update it
-                adminUser.setHashedPassword(adminHashedPassword);
-                saveUsers(users);
+                saveUsersAsync();
             }
+        } catch (Exception e) {
+            e.printStackTrace(); // Can't create admin if hashing fails
         }
     }
 
-    private static boolean saveUsers(List<User> users) {
-        try (FileWriter writer = new FileWriter(FILE)) {
-            gson.toJson(users, writer);
-            return true;
+    /**
+     * Queues a write of the directory on the writer thread; changes made before it runs are written together.
+     * Callers hold the UserService lock.
+     */
+    private static void saveUsersAsync() {
+        if (!writePending) {
+            writePending = true;
+            writer.execute(UserService::saveUsers);
+        }
+    }
+
+    /**
+     * Copies the directory, writes it into a temp file and renames it over users.json. The rename and
+     * remembering the new file as our own happen under the lock, so the new file is never mistaken for
+     * an outside change and re-read.
+     */
+    private static void saveUsers() {
+        List<User> users;
+        synchronized (UserService.class) {
+            writePending = false;
+            users = new ArrayList<>(directory.size());
+            for (User user : directory.values()) {
+                users.add(copyOf(user));
+            }
+        }
+        Path target = Path.of(FILE);
+        Path temp = Path.of(FILE + ".tmp");
+        try {
+            try (FileWriter out = new FileWriter(temp.toFile())) {
+                gson.toJson(users, out);
+            }
+            synchronized (UserService.class) {
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+                loadedModified = attributes.lastModifiedTime();
+                loadedSize = attributes.size();
+            }
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
         }
     }
 
     /**
-     * Check if the current user is an admin
+     * Blocks until queued user writes have reached the disk (window close)
      */
-    public static boolean isAdmin() {
-        return currentUser != null && currentUser.getPermission() == User.Permission.ADMIN;
+    public static void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getUsername(), user.getHashedPassword(), user.getPermission());
     }
 
     /**
      * Get all users (admin only)
      */
-    public static List<User> getAllUsers() {
-        if (!isAdmin()) {
+    public static List<User> getAllUsers(Session session) {
+        if (!session.isAdmin()) {
             return new ArrayList<>();
         }
-        return new ArrayList<>(loadUsers());
+        synchronized (UserService.class) {
+            Map<String, User> directory = loadUsers();
+            List<User> users = new ArrayList<>(directory.size());
+            for (User user : directory.values()) {
+                users.add(copyOf(user));
+            }
+            return users;
+        }
+    }
+
+    /**
+     * One page of the users matching a filter, and how many match in total
+     */
+    public static class UserPage {
+        private final List<User> users;
+        private final int total;
+
+        UserPage(List<User> users, int total) {
+            this.users = users;
+            this.total = total;
+        }
+
+        public List<User> getUsers() { return users; }
+        public int getTotal() { return total; }
+    }
+
+    /**
+     * Users whose name contains the filter text (ignoring case) and who have the given permission, in file order
+     * (admin only). Null or blank filters match everyone. Only the requested page is copied.
+     */
+    public static UserPage getUsers(Session session, String nameFilter, User.Permission permission, int offset, int limit) {
+        if (!session.isAdmin()) {
+            return new UserPage(new ArrayList<>(), 0);
+        }
+        String needle = nameFilter != null && !nameFilter.isBlank() ? nameFilter.trim().toLowerCase(Locale.ROOT) : null;
+        List<User> page = new ArrayList<>(Math.min(limit, 256));
+        int total = 0;
+        synchronized (UserService.class) {
+            for (User user : loadUsers().values()) {
+                if (permission != null && user.getPermission() != permission) continue;
+                if (needle != null && !user.getUsername().toLowerCase(Locale.ROOT).contains(needle)) continue;
+                if (total >= offset && page.size() < limit) {
+                    page.add(copyOf(user));
+                }
+                total++;
+            }
+        }
+        return new UserPage(page, total);
     }
 
     /**
      * Update a user's permission (admin only)
+     * @param session The admin's session
      * @param username The username of the user to update
      * @param newPermission The new permission level
      * @return true if successful, false otherwise
      */
-    public static boolean updateUserPermission(String username, User.Permission newPermission) {
-        if (!isAdmin()) {
-            return false;
-        }
+    public static boolean updateUserPermission(Session session, String username, User.Permission newPermission) {
+        return updateUserPermissions(session, Map.of(username, newPermission));
+    }
 
-        // Prevent changing the default admin account's permission
-        if (username.equals("admin")) {
+    /**
+     * Applies several permission changes with a single write of users.json (admin only).
+     * Nothing is changed if any of them is not allowed: the default admin account, the session's own user or an unknown user.
+     * @param session The admin's session
+     * @param changes New permission level per username
+     * @return true if every change was applied
+     */
+    public static boolean updateUserPermissions(Session session, Map<String, User.Permission> changes) {
+        if (!session.isAdmin()) {
             return false;
         }
-
-        List<User> users = loadUsers();
-        User userToUpdate = users.stream()
-                .filter(u -> u.getUsername().equals(username))
-                .findFirst()
-                .orElse(null);
-
-        if (userToUpdate == null) {
-            return false;
+        if (changes.isEmpty()) {
+            return true;
         }
 
-        // Prevent admin from changing their own permission
-        if (userToUpdate.getUsername().equals(currentUser.getUsername())) {
-            return false;
+        for (String username : changes.keySet()) {
+            // Prevent changing the default admin account's permission
+            // and prevent admin from changing their own permission
+            if (username.equals(ADMIN_USERNAME) || username.equals(session.getUsername())) {
+                return false;
+            }
         }
 
-        userToUpdate.setPermission(newPermission);
-        return saveUsers(users);
+        synchronized (UserService.class) {
+            Map<String, User> users = loadUsers();
+            if (!users.keySet().containsAll(changes.keySet())) {
+                return false;
+            }
+
+            for (Map.Entry<String, User.Permission> change : changes.entrySet()) {
+                users.get(change.getKey()).setPermission(change.getValue());
+            }
+            saveUsersAsync();
+            // Compiled access decisions depend on the permission level
+            AccessControl.invalidate();
+            return true;
+        }
     }
 
     /**
      * Get a user by username (admin only)
      */
-    public static User getUserByUsername(String username) {
-        if (!isAdmin()) {
+    public static User getUserByUsername(Session session, String username) {
+        if (!session.isAdmin()) {
             return null;
         }
-        return loadUsers().stream()
-                .filter(u -> u.getUsername().equals(username))
-                .findFirst()
-                .orElse(null);
+        synchronized (UserService.class) {
+            User user = loadUsers().get(username);
+            return user != null ? copyOf(user) : null;
+        }
     }
 }
 